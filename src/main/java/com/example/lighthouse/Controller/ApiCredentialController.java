@@ -3,10 +3,12 @@ package com.example.lighthouse.Controller;
 
 import com.example.lighthouse.Model.ApiCredential;
 import com.example.lighthouse.repository.ApiCredentialRepository;
+import com.example.lighthouse.service.LlmProviderClient;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -20,6 +22,15 @@ public class ApiCredentialController {
     @Autowired
     private ApiCredentialRepository credentialRepository;
 
+    @Autowired
+    private LlmProviderClient llmProviderClient;
+
+    // Outbound LLM call counts, failures, timeouts and latency per operation
+    @GetMapping("/client-stats")
+    public Map<String, Object> getClientStats() {
+        return llmProviderClient.getStats();
+    }
+
     // Get API key for a provider (returns masked key)
     @GetMapping("/{provider}")
     public ResponseEntity<Map<String, Object>> getCredential(@PathVariable String provider) {
@@ -111,19 +122,7 @@ public class ApiCredentialController {
 
         try {
             // Make a simple test request to verify the key works
-            java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                    .uri(java.net.URI.create("https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent"))
-                    .header("Content-Type", "application/json")
-                    .header("X-goog-api-key", apiKey)
-                    .POST(java.net.http.HttpRequest.BodyPublishers.ofString(
-                            "{\"contents\":[{\"parts\":[{\"text\":\"test\"}]}]}"
-                    ))
-                    .build();
-
-            java.net.http.HttpResponse<String> response = client.send(request,
-                    java.net.http.HttpResponse.BodyHandlers.ofString());
-
+            HttpResponse<String> response = llmProviderClient.generateGemini("test-key", apiKey, "test");
             return response.statusCode() == 200;
         } catch (Exception e) {
             System.err.println("API key test failed: " + e.getMessage());
@@ -0,0 +1,56 @@
+// src/main/java/com/example/lighthouse/Controller/ModelPriceController.java
+package com.example.lighthouse.Controller;
+
+import com.example.lighthouse.Model.ModelPrice;
+import com.example.lighthouse.service.ModelPriceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/model-prices")
+@CrossOrigin(origins = "http://localhost:5173")
+public class ModelPriceController {
+
+    @Autowired
+    private ModelPriceService modelPriceService;
+
+    // Every price version, grouped by provider and model, oldest first
+    @GetMapping
+    public List<ModelPrice> getPrices() {
+        return modelPriceService.getPrices();
+    }
+
+    /**
+     * Add a new price version. Takes provider, model, usdPerMillionTokens and
+     * an optional ISO effectiveFrom (default now); costs recorded before then
+     * are left as they are.
+     */
+    @PostMapping
+    public ResponseEntity<?> addPrice(@RequestBody Map<String, Object> request) {
+        try {
+            Object rate = request.get("usdPerMillionTokens");
+            if (!(rate instanceof Number)) {
+                return ResponseEntity.badRequest().body(Map.of("error", "usdPerMillionTokens must be a number"));
+            }
+            Object effectiveFrom = request.get("effectiveFrom");
+            ModelPrice price = modelPriceService.addPrice(
+                    (String) request.get("provider"),
+                    (String) request.get("model"),
+                    ((Number) rate).doubleValue(),
+                    effectiveFrom != null ? LocalDateTime.parse(effectiveFrom.toString()) : null);
+            return ResponseEntity.ok(price);
+        } catch (ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "provider and model must be strings"));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "effectiveFrom must be an ISO date-time"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.lighthouse.Controller;
 
 import com.example.lighthouse.Model.Project;
 import com.example.lighthouse.repository.ProjectRepository;
+import com.example.lighthouse.service.IngestRateLimiter;
+import com.example.lighthouse.service.ProjectApiKeyCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,10 +18,20 @@ import java.util.UUID;
 @RequestMapping("/api/projects")
 @CrossOrigin(origins = "http://localhost:5173")
 public class ProjectController {
+    // Bounds of the per-project ingest limits; the limiter works in nanoseconds per trace
+    private static final double MIN_INGEST_RATE = 0.01;
+    private static final double MAX_INGEST_RATE = 100000;
+    private static final int MAX_INGEST_BURST = 1000000;
 
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private ProjectApiKeyCache projectApiKeyCache;
+
+    @Autowired
+    private IngestRateLimiter ingestRateLimiter;
+
     // Get all projects for the authenticated user (or all if no auth)
     @GetMapping
     public List<Project> getAllProjects(Authentication authentication) {
@@ -61,13 +73,93 @@ public class ProjectController {
         project.setCreatedAt(LocalDateTime.now());
 
         Project savedProject = projectRepository.save(project);
+        projectApiKeyCache.invalidate(apiKey);
         return ResponseEntity.ok(savedProject);
     }
 
     // Delete a project by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProject(@PathVariable String id) {
+        projectRepository.findById(id).ifPresent(project -> projectApiKeyCache.invalidate(project.getApiKey()));
         projectRepository.deleteById(id);
+        // Also drop entries cached under a key we did not see above
+        projectApiKeyCache.invalidateProject(id);
+        ingestRateLimiter.remove(id);
         return ResponseEntity.ok().build();
     }
+
+    // Update the SDK ingest rate limit (traces per second) and burst for a project.
+    // Values outside what the limiter can represent are clamped.
+    @PutMapping("/{id}/ingest-limits")
+    public ResponseEntity<?> updateIngestLimits(@PathVariable String id, @RequestBody Map<String, Number> request) {
+        Number rate = request.get("ingestRateLimit");
+        Number burst = request.get("ingestBurst");
+        if (rate != null && !(rate.doubleValue() > 0)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ingestRateLimit must be greater than 0"));
+        }
+        if (burst != null && burst.doubleValue() < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "ingestBurst must be at least 1"));
+        }
+
+        return projectRepository.findById(id)
+                .map(project -> {
+                    project.setIngestRateLimit(rate != null
+                            ? Math.min(MAX_INGEST_RATE, Math.max(MIN_INGEST_RATE, rate.doubleValue())) : null);
+                    project.setIngestBurst(burst != null ? (int) Math.min(MAX_INGEST_BURST, burst.doubleValue()) : null);
+                    Project savedProject = projectRepository.save(project);
+                    // The cached project carries the old limits
+                    projectApiKeyCache.invalidate(savedProject.getApiKey());
+                    return ResponseEntity.ok(savedProject);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Update the SDK sampling policy: store sampleRate (0-1) of ordinary traces in full,
+    // always keep errors and traces scored below sampleKeepBelowConfidence
+    @PutMapping("/{id}/sampling")
+    public ResponseEntity<?> updateSampling(@PathVariable String id, @RequestBody Map<String, Number> request) {
+        Number rate = request.get("sampleRate");
+        Number keepBelow = request.get("sampleKeepBelowConfidence");
+        if (rate != null && (rate.doubleValue() < 0 || rate.doubleValue() > 1)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sampleRate must be between 0 and 1"));
+        }
+        if (keepBelow != null && (keepBelow.doubleValue() < 0 || keepBelow.doubleValue() > 100)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "sampleKeepBelowConfidence must be between 0 and 100"));
+        }
+
+        return projectRepository.findById(id)
+                .map(project -> {
+                    project.setSampleRate(rate != null ? rate.doubleValue() : null);
+                    project.setSampleKeepBelowConfidence(keepBelow != null ? keepBelow.doubleValue() : null);
+                    Project savedProject = projectRepository.save(project);
+                    // The cached project carries the old policy
+                    projectApiKeyCache.invalidate(savedProject.getApiKey());
+                    return ResponseEntity.ok(savedProject);
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Keep this project's traces for fewer days than the global retention (null resets it)
+    @PutMapping("/{id}/retention")
+    public ResponseEntity<?> updateRetention(@PathVariable String id, @RequestBody Map<String, Number> request) {
+        Number days = request.get("retentionDays");
+        if (days != null && days.intValue() < 1) {
+            return ResponseEntity.badRequest().body(Map.of("error", "retentionDays must be at least 1"));
+        }
+
+        return projectRepository.findById(id)
+                .map(project -> {
+                    project.setRetentionDays(days != null ? days.intValue() : null);
+                    return ResponseEntity.ok(projectRepository.save(project));
+                })
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Current SDK ingest usage against the project's token bucket
+    @GetMapping("/{id}/ingest-usage")
+    public ResponseEntity<Map<String, Object>> getIngestUsage(@PathVariable String id) {
+        return projectRepository.findById(id)
+                .map(project -> ResponseEntity.ok(ingestRateLimiter.getUsage(project)))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
\ No newline at end of file
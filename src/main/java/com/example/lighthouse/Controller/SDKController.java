@@ -1,47 +1,90 @@
 // src/main/java/com/example/lighthouse/controller/SDKController.java
 package com.example.lighthouse.Controller;
 
-import com.example.lighthouse.Model.DatabaseConnection;
 import com.example.lighthouse.Model.Project;
 import com.example.lighthouse.Model.Trace;
-import com.example.lighthouse.repository.DatabaseConnectionRepository;
-import com.example.lighthouse.repository.ProjectRepository;
+import com.example.lighthouse.dto.TraceIngestRequest;
+import com.example.lighthouse.filter.RequestDecompressionFilter;
 import com.example.lighthouse.repository.TraceRepository;
-import com.example.lighthouse.service.ExternalDatabaseService;
-import com.example.lighthouse.service.HallucinationDetector;
-import com.google.gson.Gson;
+import com.example.lighthouse.service.IngestIdempotencyService;
+import com.example.lighthouse.service.IngestRateLimiter;
+import com.example.lighthouse.service.ProjectApiKeyCache;
+import com.example.lighthouse.service.TraceIngestQueue;
+import com.example.lighthouse.service.TraceIngestService;
+import com.example.lighthouse.service.TraceSampler;
+import com.example.lighthouse.service.TraceSpool;
+import com.example.lighthouse.service.TraceSpoolReplayer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/sdk")
 @CrossOrigin(origins = "*")
 public class SDKController {
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private TraceRepository traceRepository;
 
     @Autowired
-    private ProjectRepository projectRepository;
+    private ProjectApiKeyCache projectApiKeyCache;
+
+    @Autowired
+    private TraceIngestService traceIngestService;
+
+    @Autowired
+    private TraceIngestQueue traceIngestQueue;
+
+    @Autowired
+    private IngestRateLimiter ingestRateLimiter;
+
+    @Autowired
+    private IngestIdempotencyService idempotencyService;
+
+    @Autowired
+    private TraceSampler traceSampler;
 
     @Autowired
-    private DatabaseConnectionRepository dbConnectionRepository;
+    private TraceSpool traceSpool;
 
     @Autowired
-    private ExternalDatabaseService externalDbService;
+    private TraceSpoolReplayer traceSpoolReplayer;
 
     @Autowired
-    private HallucinationDetector hallucinationDetector;
+    private ObjectMapper objectMapper;
 
-    private final Gson gson = new Gson();
+    @Value("${lighthouse.sdk.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    private ObjectReader traceReader;
+
+    @PostConstruct
+    public void init() {
+        traceReader = objectMapper.readerFor(TraceIngestRequest.class);
+    }
 
     @PostMapping("/traces")
     public ResponseEntity<Map<String, Object>> receiveTrace(
             @RequestHeader(value = "X-API-Key", required = false) String apiKey,
-            @RequestBody Map<String, Object> traceData
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody TraceIngestRequest traceData
     ) {
         // Validate API key
         if (apiKey == null || apiKey.isEmpty()) {
@@ -50,7 +93,7 @@ public class SDKController {
         }
 
         // Find project by API key
-        Optional<Project> projectOpt = projectRepository.findByApiKey(apiKey);
+        Optional<Project> projectOpt = projectApiKeyCache.findByApiKey(apiKey);
         if (projectOpt.isEmpty()) {
             return ResponseEntity.status(401)
                     .body(Map.of("error", "Invalid API key."));
@@ -58,76 +101,63 @@ public class SDKController {
 
         Project project = projectOpt.get();
 
-        try {
-            // Create trace from SDK data
-            Trace trace = new Trace();
+        // A retry of a trace we already have is answered without touching the database
+        applyIdempotencyHeader(traceData, idempotencyKey);
+        String existingTraceId = findCachedDuplicate(project, traceData);
+        if (existingTraceId != null) {
+            return ResponseEntity.ok(duplicateTrace(existingTraceId));
+        }
 
-            // Required fields
-            trace.setPrompt(getStringValue(traceData, "prompt", ""));
-            trace.setResponse(getStringValue(traceData, "response", ""));
-            trace.setTokensUsed(getIntValue(traceData, "tokensUsed", 0));
-            trace.setCostUsd(getDoubleValue(traceData, "costUsd", 0.0));
-            trace.setLatencyMs(getIntValue(traceData, "latencyMs", 0));
-            trace.setProvider(getStringValue(traceData, "provider", "unknown"));
+        ResponseEntity<Map<String, Object>> limited = checkRateLimit(project, 1);
+        if (limited != null) {
+            return limited;
+        }
 
-            // Link to project
-            trace.setProject(project);
-            trace.setCreatedAt(java.time.LocalDateTime.now());
+        String validationError = traceIngestService.validate(traceData);
+        if (validationError != null) {
+            return ResponseEntity.status(400)
+                    .body(Map.of(
+                            "error", "Invalid trace",
+                            "message", validationError
+                    ));
+        }
+        traceIngestService.resolveCost(traceData);
 
-            // NEW: Check if databaseConnectionId is provided for hallucination detection
-            String dbConnectionId = getStringValue(traceData, "databaseConnectionId", null);
+        // Projects with a sample rate keep only part of their ordinary traces
+        if (traceSampler.sampleOut(project, traceData)) {
+            return ResponseEntity.ok(sampledOut());
+        }
 
-            if (dbConnectionId != null && !dbConnectionId.isEmpty()) {
-                try {
-                    // Find database connection
-                    Optional<DatabaseConnection> dbConfigOpt = dbConnectionRepository.findById(dbConnectionId);
-
-                    if (dbConfigOpt.isPresent()) {
-                        DatabaseConnection dbConfig = dbConfigOpt.get();
-
-                        // Search database for context based on the prompt
-                        String dbContext = externalDbService.searchDatabase(dbConfig, trace.getPrompt());
-
-                        // Run hallucination detection
-                        HallucinationDetector.HallucinationResult hallucinationResult =
-                                hallucinationDetector.detectHallucinations(
-                                        trace.getResponse(),
-                                        dbContext,
-                                        trace.getPrompt()
-                                );
-
-                        // Store hallucination results
-                        String hallucinationJson = gson.toJson(hallucinationResult);
-                        trace.setHallucinationData(hallucinationJson);
-                        trace.setConfidenceScore(hallucinationResult.getConfidenceScore());
-
-                        System.out.println("✅ Hallucination detection completed for SDK trace");
-                        System.out.println("   Confidence Score: " + hallucinationResult.getConfidenceScore());
-                    } else {
-                        System.out.println("⚠️ Database connection not found: " + dbConnectionId + " - Skipping hallucination detection");
-                    }
-                } catch (Exception e) {
-                    System.err.println("⚠️ Error during hallucination detection: " + e.getMessage());
-                    e.printStackTrace();
-                    // Continue without hallucination detection - don't fail the trace
-                }
-            }
+        try {
+            // Create trace from SDK data
+            Trace trace = traceIngestService.buildTrace(project, traceData);
 
-            // Optional: confidence score if provided directly
-            if (traceData.containsKey("confidenceScore") && trace.getConfidenceScore() == null) {
-                trace.setConfidenceScore(getDoubleValue(traceData, "confidenceScore", null));
+            // Save trace; a requested hallucination check runs in the background
+            TraceIngestService.PersistResult persisted = traceIngestService.persist(List.of(trace));
+            if (!persisted.duplicates().isEmpty()) {
+                return ResponseEntity.ok(duplicateTrace(trace.getId()));
+            }
+            if (persisted.spooled()) {
+                return ResponseEntity.status(202).body(Map.of(
+                        "success", true,
+                        "traceId", trace.getId(),
+                        "duplicate", false,
+                        "spooled", true,
+                        "message", "Database unavailable - trace spooled and will be stored once it recovers"
+                ));
             }
-
-            // Save trace
-            Trace savedTrace = traceRepository.save(trace);
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
-                    "traceId", savedTrace.getId(),
+                    "traceId", trace.getId(),
+                    "duplicate", false,
                     "message", "Trace recorded successfully",
-                    "confidenceScore", savedTrace.getConfidenceScore() != null ? savedTrace.getConfidenceScore() : "N/A"
+                    "confidenceScore", trace.getConfidenceScore() != null ? trace.getConfidenceScore() : "N/A",
+                    "hallucinationStatus", trace.getHallucinationStatus() != null ? trace.getHallucinationStatus() : "N/A"
             ));
 
+        } catch (TraceSpool.SpoolFullException e) {
+            return spoolFull(e);
         } catch (Exception e) {
             return ResponseEntity.status(400)
                     .body(Map.of(
@@ -137,35 +167,407 @@ public class SDKController {
         }
     }
 
-    // Helper methods
-    private String getStringValue(Map<String, Object> map, String key, String defaultValue) {
-        Object value = map.get(key);
-        return value != null ? value.toString() : defaultValue;
+    /**
+     * Accept a trace without waiting for the database. The trace is validated,
+     * queued for the background flusher and its ID returned with 202 Accepted.
+     * Returns 429 when the ingest queue is full so the SDK can back off.
+     */
+    @PostMapping("/traces/async")
+    public ResponseEntity<Map<String, Object>> receiveTraceAsync(
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody TraceIngestRequest traceData
+    ) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "API key is required. Include X-API-Key header."));
+        }
+
+        Optional<Project> projectOpt = projectApiKeyCache.findByApiKey(apiKey);
+        if (projectOpt.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "Invalid API key."));
+        }
+
+        applyIdempotencyHeader(traceData, idempotencyKey);
+        String existingTraceId = findCachedDuplicate(projectOpt.get(), traceData);
+        if (existingTraceId != null) {
+            return ResponseEntity.ok(duplicateTrace(existingTraceId));
+        }
+
+        ResponseEntity<Map<String, Object>> limited = checkRateLimit(projectOpt.get(), 1);
+        if (limited != null) {
+            return limited;
+        }
+
+        String validationError = traceIngestService.validate(traceData);
+        if (validationError != null) {
+            return ResponseEntity.status(400)
+                    .body(Map.of(
+                            "error", "Invalid trace",
+                            "message", validationError
+                    ));
+        }
+        traceIngestService.resolveCost(traceData);
+
+        if (traceSampler.sampleOut(projectOpt.get(), traceData)) {
+            return ResponseEntity.ok(sampledOut());
+        }
+
+        Trace trace = traceIngestService.buildTrace(projectOpt.get(), traceData);
+        trace.setId(UUID.randomUUID().toString());
+
+        // Reserve the key now: the response carries the trace ID before the flusher writes it
+        String projectId = projectOpt.get().getId();
+        if (trace.getIdempotencyKey() != null) {
+            try {
+                existingTraceId = idempotencyService.reserve(projectId, trace.getIdempotencyKey(), trace.getId());
+            } catch (IngestIdempotencyService.ReservationsFullException e) {
+                return ResponseEntity.status(429)
+                        .header("Retry-After", "1")
+                        .body(Map.of("error", "Too many traces awaiting storage. Retry later."));
+            }
+            if (existingTraceId != null) {
+                return ResponseEntity.ok(duplicateTrace(existingTraceId));
+            }
+        }
+
+        if (!traceIngestQueue.offer(trace)) {
+            if (trace.getIdempotencyKey() != null) {
+                idempotencyService.release(projectId, trace.getIdempotencyKey(), trace.getId());
+            }
+            return ResponseEntity.status(429)
+                    .header("Retry-After", "1")
+                    .body(Map.of("error", "Ingest queue is full. Retry later."));
+        }
+
+        return ResponseEntity.status(202).body(Map.of(
+                "success", true,
+                "traceId", trace.getId(),
+                "duplicate", false,
+                "message", "Trace accepted for processing"
+        ));
     }
 
-    private Integer getIntValue(Map<String, Object> map, String key, Integer defaultValue) {
-        Object value = map.get(key);
-        if (value == null) return defaultValue;
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
+    /**
+     * Poll the background hallucination check of a trace. Status moves from
+     * PENDING to SCORED (or FAILED); the result is included once scored.
+     */
+    @GetMapping("/traces/{traceId}/hallucination")
+    public ResponseEntity<Map<String, Object>> getHallucinationResult(
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            @PathVariable String traceId
+    ) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "API key is required. Include X-API-Key header."));
         }
-        try {
-            return Integer.parseInt(value.toString());
+
+        Optional<Project> projectOpt = projectApiKeyCache.findByApiKey(apiKey);
+        if (projectOpt.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "Invalid API key."));
+        }
+
+        Optional<Trace> traceOpt = traceRepository.findById(traceId);
+        if (traceOpt.isEmpty() || traceOpt.get().getProject() == null
+                || !traceOpt.get().getProject().getId().equals(projectOpt.get().getId())) {
+            return ResponseEntity.status(404)
+                    .body(Map.of("error", "Trace not found."));
+        }
+
+        Trace trace = traceOpt.get();
+        Map<String, Object> response = new HashMap<>();
+        response.put("traceId", trace.getId());
+        response.put("status", trace.getHallucinationStatus() != null ? trace.getHallucinationStatus() : "NOT_REQUESTED");
+        response.put("confidenceScore", trace.getConfidenceScore());
+        response.put("hallucinationData", trace.getHallucinationData());
+        response.put("unsupportedClaimCount", trace.getUnsupportedClaimCount());
+        response.put("hasHallucinations", trace.getHasHallucinations());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Current depth and counters of the asynchronous ingest queue, plus the
+     * API key cache hit rate, deduplicated retries and the local spool.
+     */
+    @GetMapping("/ingest/stats")
+    public Map<String, Object> getIngestStats() {
+        Map<String, Object> stats = new HashMap<>(traceIngestQueue.getStats());
+        stats.put("apiKeyCache", projectApiKeyCache.getStats());
+        stats.put("idempotency", idempotencyService.getStats());
+        Map<String, Object> spool = new HashMap<>(traceSpool.getStats());
+        spool.putAll(traceSpoolReplayer.getStats());
+        stats.put("spool", spool);
+        return stats;
+    }
+
+    /**
+     * Receive many traces in one request as a JSON array. The API key is checked
+     * once and all valid traces are written in a single batched transaction.
+     */
+    @PostMapping(value = "/traces/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> receiveTraceBatch(
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            @RequestBody List<TraceIngestRequest> traces
+    ) {
+        return processBatch(apiKey, traces, new HashMap<>());
+    }
+
+    /**
+     * Same as {@link #receiveTraceBatch} but reads newline-delimited JSON, one
+     * trace per line. Lines that fail to parse are reported individually.
+     */
+    @PostMapping(value = "/traces/batch", consumes = NDJSON_VALUE)
+    public ResponseEntity<Map<String, Object>> receiveTraceBatchNdjson(
+            @RequestHeader(value = "X-API-Key", required = false) String apiKey,
+            HttpServletRequest request
+    ) {
+        List<TraceIngestRequest> traces = new ArrayList<>();
+        Map<Integer, String> parseErrors = new HashMap<>();
+
+        try (BufferedReader reader = request.getReader()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (traces.size() > maxBatchSize) {
+                    break;
+                }
+                try {
+                    traces.add(traceReader.readValue(line));
+                } catch (Exception e) {
+                    parseErrors.put(traces.size(), "Invalid JSON: " + e.getMessage());
+                    traces.add(null);
+                }
+            }
+        } catch (RequestDecompressionFilter.PayloadTooLargeException e) {
+            return payloadTooLarge(e);
         } catch (Exception e) {
-            return defaultValue;
+            return ResponseEntity.status(400)
+                    .body(Map.of(
+                            "error", "Failed to read trace batch",
+                            "message", String.valueOf(e.getMessage())
+                    ));
         }
+
+        return processBatch(apiKey, traces, parseErrors);
     }
 
-    private Double getDoubleValue(Map<String, Object> map, String key, Double defaultValue) {
-        Object value = map.get(key);
-        if (value == null) return defaultValue;
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
+    private ResponseEntity<Map<String, Object>> processBatch(
+            String apiKey,
+            List<TraceIngestRequest> traces,
+            Map<Integer, String> parseErrors
+    ) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "API key is required. Include X-API-Key header."));
+        }
+
+        Optional<Project> projectOpt = projectApiKeyCache.findByApiKey(apiKey);
+        if (projectOpt.isEmpty()) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("error", "Invalid API key."));
+        }
+
+        if (traces == null || traces.isEmpty()) {
+            return ResponseEntity.status(400)
+                    .body(Map.of("error", "Batch must contain at least one trace."));
         }
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (Exception e) {
-            return defaultValue;
+
+        if (traces.size() > maxBatchSize) {
+            return ResponseEntity.status(413)
+                    .body(Map.of("error", "Batch exceeds the maximum of " + maxBatchSize + " traces."));
+        }
+
+        Project project = projectOpt.get();
+
+        ResponseEntity<Map<String, Object>> limited = checkRateLimit(project, traces.size());
+        if (limited != null) {
+            return limited;
+        }
+
+        // Convert every item first so one bad item never sinks the whole batch
+        List<Map<String, Object>> results = new ArrayList<>();
+        List<Trace> toSave = new ArrayList<>();
+        List<Map<String, Object>> pendingResults = new ArrayList<>();
+
+        for (int i = 0; i < traces.size(); i++) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("index", i);
+            results.add(result);
+
+            TraceIngestRequest traceData = traces.get(i);
+            if (parseErrors.containsKey(i)) {
+                result.put("success", false);
+                result.put("error", parseErrors.get(i));
+                continue;
+            }
+
+            String validationError = traceIngestService.validate(traceData);
+            if (validationError != null) {
+                result.put("success", false);
+                result.put("error", validationError);
+                continue;
+            }
+            traceIngestService.resolveCost(traceData);
+
+            String existingTraceId = findCachedDuplicate(project, traceData);
+            if (existingTraceId != null) {
+                result.putAll(duplicateTrace(existingTraceId));
+                continue;
+            }
+
+            if (traceSampler.sampleOut(project, traceData)) {
+                result.put("success", true);
+                result.put("sampled", false);
+                continue;
+            }
+
+            try {
+                toSave.add(traceIngestService.buildTrace(project, traceData));
+                pendingResults.add(result);
+            } catch (Exception e) {
+                result.put("success", false);
+                result.put("error", "Failed to process trace: " + e.getMessage());
+            }
+        }
+
+        String batchError = null;
+        Set<Integer> duplicates = Set.of();
+        boolean spooled = false;
+        if (!toSave.isEmpty()) {
+            try {
+                TraceIngestService.PersistResult persisted = traceIngestService.persist(toSave);
+                duplicates = persisted.duplicates();
+                spooled = persisted.spooled();
+            } catch (TraceSpool.SpoolFullException e) {
+                System.err.println("❌ Database unavailable and trace spool full: " + e.getMessage());
+                batchError = "Service temporarily unavailable - retry later";
+            } catch (Exception e) {
+                System.err.println("❌ Failed to persist SDK trace batch: " + e.getMessage());
+                batchError = "Failed to save trace: " + e.getMessage();
+            }
+        }
+
+        for (int i = 0; i < pendingResults.size(); i++) {
+            Map<String, Object> result = pendingResults.get(i);
+            if (batchError != null) {
+                result.put("success", false);
+                result.put("error", batchError);
+            } else if (duplicates.contains(i)) {
+                result.putAll(duplicateTrace(toSave.get(i).getId()));
+            } else {
+                result.put("success", true);
+                result.put("traceId", toSave.get(i).getId());
+                result.put("duplicate", false);
+            }
+        }
+
+        long accepted = results.stream().filter(r -> Boolean.TRUE.equals(r.get("success"))).count();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", accepted == results.size());
+        response.put("accepted", accepted);
+        response.put("failed", results.size() - accepted);
+        response.put("spooled", spooled);
+        response.put("results", results);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * The Idempotency-Key header wins over an idempotencyKey in the body.
+     */
+    private void applyIdempotencyHeader(TraceIngestRequest traceData, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            traceData.setIdempotencyKey(idempotencyKey);
+        }
+    }
+
+    private String findCachedDuplicate(Project project, TraceIngestRequest traceData) {
+        String key = traceData != null ? traceData.getIdempotencyKey() : null;
+        if (key == null || key.isBlank()) {
+            return null;
+        }
+        return idempotencyService.findCached(project.getId(), key);
+    }
+
+    private Map<String, Object> duplicateTrace(String traceId) {
+        // The key belongs to a retry of a trace that sampling dropped
+        if (IngestIdempotencyService.SAMPLED_OUT.equals(traceId)) {
+            return sampledOut();
+        }
+        return Map.of(
+                "success", true,
+                "traceId", traceId,
+                "duplicate", true,
+                "message", "Duplicate trace - already recorded under this idempotency key"
+        );
+    }
+
+    private ResponseEntity<Map<String, Object>> spoolFull(TraceSpool.SpoolFullException e) {
+        System.err.println("❌ Database unavailable and trace spool full: " + e.getMessage());
+        return ResponseEntity.status(503)
+                .header("Retry-After", "5")
+                .body(Map.of("error", "Service temporarily unavailable. Retry later."));
+    }
+
+    private Map<String, Object> sampledOut() {
+        return Map.of(
+                "success", true,
+                "sampled", false,
+                "message", "Trace sampled out - counted in project metrics but not stored"
+        );
+    }
+
+    /**
+     * Take one token per trace from the project's bucket. Returns the 429 (or
+     * 413 for a batch that can never fit) to send back, or null when allowed.
+     */
+    private ResponseEntity<Map<String, Object>> checkRateLimit(Project project, int traces) {
+        int burst = ingestRateLimiter.getBurst(project);
+        if (traces > burst) {
+            return ResponseEntity.status(413)
+                    .body(Map.of("error", "Batch of " + traces + " traces exceeds the project burst limit of "
+                            + burst + ". Split it into smaller batches."));
+        }
+
+        long waitNanos = ingestRateLimiter.tryAcquire(project, traces);
+        if (waitNanos == 0) {
+            return null;
+        }
+
+        long retryAfterSeconds = Math.max(1L, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        return ResponseEntity.status(429)
+                .header("Retry-After", String.valueOf(retryAfterSeconds))
+                .body(Map.of("error", "Ingest rate limit exceeded for this project. Retry later."));
+    }
+
+    /**
+     * Malformed JSON or a field of the wrong type, e.g. a string in tokensUsed.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, Object>> handleUnreadablePayload(HttpMessageNotReadableException e) {
+        if (e.getMostSpecificCause() instanceof RequestDecompressionFilter.PayloadTooLargeException tooLarge) {
+            return payloadTooLarge(tooLarge);
         }
+        return ResponseEntity.status(400)
+                .body(Map.of(
+                        "error", "Invalid trace payload",
+                        "message", String.valueOf(e.getMostSpecificCause().getMessage())
+                ));
+    }
+
+    /**
+     * Compressed body that inflates past lighthouse.sdk.max-decompressed-bytes.
+     */
+    @ExceptionHandler(RequestDecompressionFilter.PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> payloadTooLarge(RequestDecompressionFilter.PayloadTooLargeException e) {
+        return ResponseEntity.status(413)
+                .body(Map.of(
+                        "error", "Payload too large",
+                        "message", e.getMessage()
+                ));
     }
-}
\ No newline at end of file
+}
@@ -2,18 +2,33 @@ package com.example.lighthouse.Controller;
 
 import com.example.lighthouse.Model.DatabaseConnection;
 import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceCursor;
+import com.example.lighthouse.dto.TraceFilter;
+import com.example.lighthouse.dto.TraceSearchHit;
+import com.example.lighthouse.dto.TraceSummary;
 import com.example.lighthouse.repository.DatabaseConnectionRepository;
 import com.example.lighthouse.repository.TraceRepository;
 import com.example.lighthouse.service.*;
-import com.google.gson.Gson;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/traces")
@@ -41,19 +56,266 @@ public class TraceController {
     @Autowired
     private SupabaseAuthService supabaseAuthService;
 
-    private final Gson gson = new Gson();
+    @Autowired
+    private TraceSampler traceSampler;
+
+    @Autowired
+    private TracePartitionManager tracePartitionManager;
+
+    @Autowired
+    private TraceColdStorage traceColdStorage;
+
+    @Autowired
+    private TraceBodyStore traceBodyStore;
+
+    @Autowired
+    private TraceRollupService traceRollupService;
+
+    @Autowired
+    private TraceStreamHub traceStreamHub;
+
+    @Autowired
+    private TraceSearchIndex traceSearchIndex;
+
+    @Autowired
+    private TraceExportService traceExportService;
 
+    @Autowired
+    private CostLedgerService costLedgerService;
+
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    // Deep relevance pages get expensive; narrow the query or use sort=recent instead
+    private static final int MAX_SEARCH_OFFSET = 1000;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 500;
+    private static final int MAX_COST_RANGE_DAYS = 366;
+
+    @Value("${lighthouse.traces.preview-length:200}")
+    private int previewLength;
+
+    @Value("${lighthouse.traces.search.default-days:30}")
+    private int searchDefaultDays;
+
+    // Generation is bounded by lighthouse.llm.read-timeout-ms; this leaves room to save the trace
+    @Value("${lighthouse.traces.query-stream.timeout-ms:90000}")
+    private long queryStreamTimeoutMs;
+
+    /**
+     * Latest traces as summaries, newest first. Use /page to go further back
+     * and GET /api/traces/{id} for the full trace.
+     */
     @GetMapping
-    public List<Trace> getAllTraces(@RequestParam(required = false) String projectId) {
-        if (projectId != null && !projectId.isEmpty()) {
-            return traceRepository.findByProjectIdOrderByCreatedAtDesc(projectId);
+    public ResponseEntity<?> getAllTraces(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        TraceFilter filter = new TraceFilter(
+                projectId != null && !projectId.isEmpty() ? projectId : null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+        return ResponseEntity.ok(traceRepository.findSummaryPage(filter, null, limit, previewLength));
+    }
+
+    /**
+     * Page through traces newest first. Pass the returned nextCursor to get the
+     * following page; every page costs the same regardless of project size.
+     * Returns summaries with short previews unless view=full is requested.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Map<String, Object>> getTracePage(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String provider,
+            @RequestParam(required = false) Double minConfidence,
+            @RequestParam(required = false) Double maxConfidence,
+            @RequestParam(required = false) Integer minUnsupportedClaims,
+            @RequestParam(required = false) Boolean hasHallucinations,
+            @RequestParam(defaultValue = "summary") String view) {
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+
+        TraceCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = TraceCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+        }
+
+        TraceFilter filter = new TraceFilter(
+                projectId != null && !projectId.isEmpty() ? projectId : null,
+                from,
+                to,
+                provider != null && !provider.isEmpty() ? provider : null,
+                minConfidence,
+                maxConfidence,
+                minUnsupportedClaims,
+                hasHallucinations
+        );
+
+        // One extra row tells us whether another page exists
+        Map<String, Object> page = new HashMap<>();
+        TraceCursor next = null;
+        if ("full".equalsIgnoreCase(view)) {
+            List<Trace> traces = traceRepository.findPage(filter, after, limit + 1);
+            if (traces.size() > limit) {
+                traces = traces.subList(0, limit);
+                Trace last = traces.get(limit - 1);
+                next = new TraceCursor(last.getCreatedAt(), last.getId());
+            }
+            page.put("traces", traces);
+        } else {
+            List<TraceSummary> traces = traceRepository.findSummaryPage(filter, after, limit + 1, previewLength);
+            if (traces.size() > limit) {
+                traces = traces.subList(0, limit);
+                TraceSummary last = traces.get(limit - 1);
+                next = new TraceCursor(last.createdAt(), last.id());
+            }
+            page.put("traces", traces);
+        }
+
+        page.put("hasMore", next != null);
+        page.put("nextCursor", next != null ? next.encode() : null);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Full-text search over prompts and responses. q uses web search syntax:
+     * "quoted phrases", OR, and -word to exclude. sort=relevance (default)
+     * pages with offset; sort=recent pages with a cursor like /page. Without
+     * from, only the last lighthouse.traces.search.default-days are searched.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Map<String, Object>> searchTraces(
+            @RequestParam String q,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String provider,
+            @RequestParam(defaultValue = "relevance") String sort,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String cursor) {
+
+        if (!traceSearchIndex.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Trace search is not available"));
+        }
+        if (q.isBlank() || q.length() > MAX_SEARCH_QUERY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("error", "q must be 1 to " + MAX_SEARCH_QUERY_LENGTH + " characters"));
+        }
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must be between 1 and " + MAX_SEARCH_PAGE_SIZE));
+        }
+        boolean byRelevance = !"recent".equalsIgnoreCase(sort);
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET || (!byRelevance && offset > 0)) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "offset must be between 0 and " + MAX_SEARCH_OFFSET + " and is only used with sort=relevance"));
+        }
+
+        TraceCursor after = null;
+        if (!byRelevance && cursor != null && !cursor.isEmpty()) {
+            try {
+                after = TraceCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid cursor"));
+            }
+        }
+
+        TraceFilter filter = new TraceFilter(
+                projectId != null && !projectId.isEmpty() ? projectId : null,
+                from != null ? from : LocalDateTime.now().minusDays(searchDefaultDays),
+                to,
+                provider != null && !provider.isEmpty() ? provider : null,
+                null,
+                null,
+                null,
+                null
+        );
+
+        List<TraceSearchHit> hits = traceRepository.search(q, filter, byRelevance, after, offset, limit + 1, previewLength);
+        boolean hasMore = hits.size() > limit;
+        if (hasMore) {
+            hits = hits.subList(0, limit);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("results", hits);
+        result.put("hasMore", hasMore);
+        if (byRelevance) {
+            result.put("nextOffset", hasMore && offset + limit <= MAX_SEARCH_OFFSET ? offset + limit : null);
+        } else {
+            TraceSummary last = hasMore ? hits.get(limit - 1).trace() : null;
+            result.put("nextCursor", last != null ? new TraceCursor(last.createdAt(), last.id()).encode() : null);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Stream every matching trace, oldest first, as NDJSON (default) or CSV.
+     * Rows go from a database cursor straight to the response, gzipped unless
+     * gzip=false, so exports of any size use constant memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTraces(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String provider,
+            @RequestParam(defaultValue = TraceExportService.NDJSON) String format,
+            @RequestParam(defaultValue = "true") boolean gzip) {
+
+        String exportFormat = format.toLowerCase();
+        if (!exportFormat.equals(TraceExportService.NDJSON) && !exportFormat.equals(TraceExportService.CSV)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!traceExportService.tryStart()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header("Retry-After", "30").build();
+        }
+
+        TraceFilter filter = new TraceFilter(
+                projectId != null && !projectId.isEmpty() ? projectId : null,
+                from,
+                to,
+                provider != null && !provider.isEmpty() ? provider : null,
+                null,
+                null,
+                null,
+                null
+        );
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.equals(TraceExportService.CSV)
+                        ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                        : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"traces." + exportFormat + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
-        return traceRepository.findTop100ByOrderByCreatedAtDesc();
+        return response.body(out -> traceExportService.export(filter, exportFormat, gzip, out));
+    }
+
+    @GetMapping("/export/stats")
+    public Map<String, Object> getExportStats() {
+        return traceExportService.getStats();
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Trace> getTrace(@PathVariable String id) {
-        return traceRepository.findById(id)
+        return traceRepository.findWithBodiesById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -68,6 +330,50 @@ public class TraceController {
         return aiService.executeQuery(prompt);
     }
 
+    /**
+     * Streaming variant of /query: "chunk" events ({ "text": ... }) are sent
+     * as Gemini produces the answer, then one "trace" event with the saved
+     * trace, including timeToFirstTokenMs. The trace is saved even when the
+     * client disconnects early.
+     */
+    @PostMapping(value = "/query/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter executeQueryStream(@RequestBody Map<String, String> request) {
+        String prompt = request.get("prompt");
+        if (prompt == null || prompt.isEmpty()) {
+            throw new RuntimeException("Prompt is required");
+        }
+        System.out.println("Streaming query WITHOUT database: " + prompt);
+
+        SseEmitter emitter = new SseEmitter(queryStreamTimeoutMs);
+        AtomicBoolean clientGone = new AtomicBoolean();
+        emitter.onCompletion(() -> clientGone.set(true));
+        emitter.onTimeout(() -> clientGone.set(true));
+        emitter.onError(e -> clientGone.set(true));
+
+        Thread.ofVirtual().name("query-stream").start(() -> {
+            try {
+                Trace trace = aiService.executeQueryStream(prompt, text -> {
+                    if (clientGone.get()) {
+                        return;
+                    }
+                    try {
+                        emitter.send(SseEmitter.event().name("chunk").data(Map.of("text", text)));
+                    } catch (Exception e) {
+                        // Stop relaying, but let the generation finish so the trace is complete
+                        clientGone.set(true);
+                    }
+                });
+                if (!clientGone.get()) {
+                    emitter.send(SseEmitter.event().name("trace").data(trace));
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
     @PostMapping("/query-with-db")
     public Trace executeQueryWithDB(
             @RequestBody Map<String, String> request,
@@ -88,14 +394,10 @@ public class TraceController {
         Trace trace = aiService.executeQueryWithExternalDB(prompt, dbConnectionId);
 
         // Check if hallucination was detected and send email
-        if (trace.getHallucinationData() != null && authentication != null) {
+        HallucinationDetector.HallucinationResult result = trace.getHallucinationResult();
+        if (result != null && authentication != null) {
             try {
-                HallucinationDetector.HallucinationResult result = gson.fromJson(
-                        trace.getHallucinationData(),
-                        HallucinationDetector.HallucinationResult.class
-                );
-
-                if (result != null && result.getConfidenceScore() < 50.0) {
+                if (result.getConfidenceScore() < 50.0) {
                     String userEmail = supabaseAuthService.getUserEmail(authentication);
                     if (userEmail != null && emailService != null) {
                         System.out.println("📧 Sending email for query-with-db endpoint");
@@ -148,9 +450,9 @@ public class TraceController {
             HallucinationDetector.HallucinationResult result =
                     hallucinationDetector.detectHallucinations(response, dbContext, prompt);
 
-            trace.setHallucinationData(gson.toJson(result));
-            trace.setConfidenceScore(result.getConfidenceScore());
+            trace.setHallucinationResult(result);
 
+            traceBodyStore.share(List.of(trace));
             Trace savedTrace = traceRepository.save(trace);
 
             // Send email notification if hallucination detected
@@ -175,37 +477,140 @@ public class TraceController {
             System.err.println("Hallucination detection error: " + e.getMessage());
             e.printStackTrace();
             // Still save the trace even if hallucination detection fails
+            traceBodyStore.share(List.of(trace));
             return traceRepository.save(trace);
         }
     }
 
+    /**
+     * Totals from the trace rollups over [from, to), where from defaults to
+     * a few weeks back. Includes traces that sampling counted but did not store.
+     */
     @GetMapping("/stats")
-    public Map<String, Object> getStats(@RequestParam(required = false) String projectId) {
+    public Map<String, Object> getStats(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        boolean byProject = projectId != null && !projectId.isEmpty();
+        Map<String, Object> totals = traceRollupService.getTotals(byProject ? projectId : null, from, to);
+
         Map<String, Object> stats = new HashMap<>();
-        if (projectId != null && !projectId.isEmpty()) {
-            Double totalCost = traceRepository.getTotalCostByProjectId(projectId);
-            Long totalRequests = traceRepository.getTotalRequestsByProjectId(projectId);
-            Double avgLatency = traceRepository.getAverageLatencyByProjectId(projectId);
-            stats.put("totalCost", totalCost != null ? totalCost : 0.0);
-            stats.put("totalRequests", totalRequests != null ? totalRequests : 0L);
-            stats.put("averageLatency", avgLatency != null ? avgLatency : 0.0);
-        } else {
-            Double totalCost = traceRepository.getTotalCost();
-            Long totalRequests = traceRepository.getTotalRequests();
-            Double avgLatency = traceRepository.getAverageLatency();
-            stats.put("totalCost", totalCost != null ? totalCost : 0.0);
-            stats.put("totalRequests", totalRequests != null ? totalRequests : 0L);
-            stats.put("averageLatency", avgLatency != null ? avgLatency : 0.0);
-        }
+        stats.put("totalCost", totals.get("cost"));
+        stats.put("totalRequests", totals.get("count"));
+        stats.put("totalTokens", totals.get("tokens"));
+        stats.put("averageLatency", totals.get("averageLatency"));
+        stats.put("minLatency", totals.get("minLatency"));
+        stats.put("maxLatency", totals.get("maxLatency"));
+        stats.put("latencyPercentiles", totals.get("latencyPercentiles"));
+        stats.put("sampledOutRequests", traceSampler.getTotals(byProject ? projectId : null).get("count"));
         return stats;
     }
 
+    /**
+     * Cost and tokens per provider, per model and per day over the days
+     * [from, to), served from the cost ledger. Defaults to the last 30 days.
+     */
+    @GetMapping("/costs")
+    public ResponseEntity<Map<String, Object>> getCosts(
+            @RequestParam(required = false) String projectId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now().plusDays(1);
+        LocalDate start = from != null ? from : end.minusDays(30);
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must be before to"));
+        }
+        if (start.plusDays(MAX_COST_RANGE_DAYS).isBefore(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Range must not exceed " + MAX_COST_RANGE_DAYS + " days"));
+        }
+        boolean byProject = projectId != null && !projectId.isEmpty();
+        return ResponseEntity.ok(costLedgerService.getBreakdown(byProject ? projectId : null, start, end));
+    }
+
+    /**
+     * Live tail: pushes "trace" events (summaries of newly stored traces) and
+     * "score" events (hallucination results) for one project, or all when
+     * projectId is omitted. A "dropped" event reports events skipped because
+     * the client fell behind.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamTraces(@RequestParam(required = false) String projectId) {
+        SseEmitter emitter = traceStreamHub.subscribe(projectId != null && !projectId.isEmpty() ? projectId : null);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/stream/stats")
+    public Map<String, Object> getStreamStats() {
+        return traceStreamHub.getStats();
+    }
+
+    /**
+     * Bucketed request count, cost, tokens, latency percentiles and
+     * low-confidence rate for a project, served from the trace rollups.
+     * bucket is 1m, 5m, 1h or 1d; the range defaults to the last 60 buckets.
+     */
+    @GetMapping("/timeseries")
+    public ResponseEntity<Map<String, Object>> getTimeseries(
+            @RequestParam String projectId,
+            @RequestParam(defaultValue = "1h") String bucket,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        Duration step;
+        try {
+            step = TraceRollupService.parseBucket(bucket);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(step.multipliedBy(60));
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must be before to"));
+        }
+
+        try {
+            Map<String, Object> result = new HashMap<>();
+            result.put("projectId", projectId);
+            result.put("bucket", bucket);
+            result.put("from", start);
+            result.put("to", end);
+            result.put("points", traceRollupService.getTimeseries(projectId, bucket, start, end));
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     @DeleteMapping("/clear")
     public ResponseEntity<Void> clearTraces() {
-        traceRepository.deleteAll();
+        traceRepository.truncateAll();
+        traceRollupService.clear();
         return ResponseEntity.ok().build();
     }
 
+    // Partition layout, retention and cold compression of the traces table
+    @GetMapping("/storage")
+    public Map<String, Object> getStorage() {
+        Map<String, Object> storage = new HashMap<>(tracePartitionManager.getStats());
+        storage.put("cold", traceColdStorage.getStats());
+        storage.put("bodies", traceBodyStore.getStats());
+        return storage;
+    }
+
+    // Convert a plain traces table to a partitioned one, online, in the background
+    @PostMapping("/storage/partition")
+    public ResponseEntity<Map<String, Object>> partitionTraces() {
+        try {
+            tracePartitionManager.startMigration();
+            return ResponseEntity.accepted().body(tracePartitionManager.getStats());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Check hallucinations for an existing trace using a database connection,
      * then notify via email if a hallucination is detected
@@ -222,7 +627,7 @@ public class TraceController {
                 return ResponseEntity.badRequest().build();
             }
 
-            Trace trace = traceRepository.findById(traceId)
+            Trace trace = traceRepository.findWithBodiesById(traceId)
                     .orElseThrow(() -> new RuntimeException("Trace not found"));
 
             DatabaseConnection dbConnection = dbConnectionRepository.findById(dbConnectionId)
@@ -240,10 +645,12 @@ public class TraceController {
                     );
 
             // Store results
-            trace.setHallucinationData(gson.toJson(result));
-            trace.setConfidenceScore(result.getConfidenceScore());
+            Double previousScore = trace.getConfidenceScore();
+            trace.setHallucinationResult(result);
 
             Trace updatedTrace = traceRepository.save(trace);
+            traceRollupService.recordScore(updatedTrace, previousScore, result.getConfidenceScore());
+            traceStreamHub.publishScore(updatedTrace, result.getConfidenceScore(), updatedTrace.getHallucinationStatus());
 
             // Send email notification if hallucination detected
             System.out.println("📧 Email check - Authentication: " + (authentication != null));
@@ -0,0 +1,79 @@
+// src/main/java/com/example/lighthouse/Model/ColdTraceBody.java
+package com.example.lighthouse.Model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The text bodies of a cold trace, stored deflated in traces.cold_body.
+ * Format: a version byte, then a deflate stream of the three fields, each as
+ * a length (-1 for null) followed by UTF-8 bytes.
+ */
+public record ColdTraceBody(String prompt, String response, String hallucinationData) {
+    private static final int FORMAT_VERSION = 1;
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(FORMAT_VERSION);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            writeField(out, prompt);
+            writeField(out, response);
+            writeField(out, hallucinationData);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ColdTraceBody decode(byte[] encoded) {
+        if (encoded.length == 0 || encoded[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported cold trace body format");
+        }
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(
+                new ByteArrayInputStream(encoded, 1, encoded.length - 1)))) {
+            return new ColdTraceBody(readField(in), readField(in), readField(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * UTF-8 size of the three fields before compression.
+     */
+    public long rawBytes() {
+        return utf8Length(prompt) + utf8Length(response) + utf8Length(hallucinationData);
+    }
+
+    private static void writeField(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readField(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static long utf8Length(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+}
@@ -0,0 +1,61 @@
+// src/main/java/com/example/lighthouse/Model/CostLedgerEntry.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Daily cost and token totals per project, provider and model, added to as
+ * traces are recorded so cost breakdowns never group the traces table.
+ */
+@Entity
+@Table(
+        name = "cost_ledger",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "provider", "model", "day"}),
+        indexes = @Index(name = "idx_cost_ledger_day", columnList = "day")
+)
+public class CostLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "project_id", nullable = false)
+    private String projectId; // "" for traces without a project
+
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(nullable = false)
+    private String model; // "unknown" when the trace did not name one
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private long traceCount;
+    private long tokensUsed;
+    private double costUsd;
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProjectId() { return projectId; }
+    public void setProjectId(String projectId) { this.projectId = projectId; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getTraceCount() { return traceCount; }
+    public void setTraceCount(long traceCount) { this.traceCount = traceCount; }
+
+    public long getTokensUsed() { return tokensUsed; }
+    public void setTokensUsed(long tokensUsed) { this.tokensUsed = tokensUsed; }
+
+    public double getCostUsd() { return costUsd; }
+    public void setCostUsd(double costUsd) { this.costUsd = costUsd; }
+}
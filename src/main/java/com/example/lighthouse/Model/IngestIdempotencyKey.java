@@ -0,0 +1,49 @@
+// src/main/java/com/example/lighthouse/Model/IngestIdempotencyKey.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency key claimed by an SDK trace. The unique constraint is what makes
+ * retried requests resolve to the original trace.
+ */
+@Entity
+@Table(
+        name = "ingest_idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "idempotency_key"}),
+        indexes = @Index(name = "idx_ingest_idempotency_keys_created_at", columnList = "created_at")
+)
+public class IngestIdempotencyKey {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "project_id", nullable = false)
+    private String projectId;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private String traceId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProjectId() { return projectId; }
+    public void setProjectId(String projectId) { this.projectId = projectId; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public String getTraceId() { return traceId; }
+    public void setTraceId(String traceId) { this.traceId = traceId; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
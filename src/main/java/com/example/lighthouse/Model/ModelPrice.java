@@ -0,0 +1,53 @@
+// src/main/java/com/example/lighthouse/Model/ModelPrice.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Price of a provider's model from effectiveFrom on. Prices are never edited
+ * in place: a price change is a new row, so traces keep the price that was
+ * in effect when they were recorded.
+ */
+@Entity
+@Table(name = "model_prices",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"provider", "model", "effective_from"}))
+public class ModelPrice {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false)
+    private String provider; // lower case, e.g. "gemini"
+
+    @Column(nullable = false)
+    private String model; // lower case, e.g. "gemini-2.0-flash"
+
+    @Column(name = "effective_from", nullable = false)
+    private LocalDateTime effectiveFrom;
+
+    // Blended input/output rate; traces only record their total token count
+    @Column(nullable = false)
+    private double usdPerMillionTokens;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public LocalDateTime getEffectiveFrom() { return effectiveFrom; }
+    public void setEffectiveFrom(LocalDateTime effectiveFrom) { this.effectiveFrom = effectiveFrom; }
+
+    public double getUsdPerMillionTokens() { return usdPerMillionTokens; }
+    public void setUsdPerMillionTokens(double usdPerMillionTokens) { this.usdPerMillionTokens = usdPerMillionTokens; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
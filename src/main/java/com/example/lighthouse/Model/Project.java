@@ -28,6 +28,16 @@ public class Project {
     @Column(name = "user_id")
     private String userId; // Supabase user ID
 
+    // SDK ingest limits - null means the configured default
+    private Double ingestRateLimit; // traces per second
+    private Integer ingestBurst; // max traces accepted at once
+
+    // SDK trace sampling - null means keep every trace
+    private Double sampleRate; // 0-1, share of ordinary traces stored in full
+    private Double sampleKeepBelowConfidence; // traces scored below this are always kept
+
+    private Integer retentionDays; // null means the global trace retention
+
     // Add getter and setter
     public String getUserId() {
         return userId;
@@ -52,4 +62,19 @@ public class Project {
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
-}
\ No newline at end of file
+
+    public Double getIngestRateLimit() { return ingestRateLimit; }
+    public void setIngestRateLimit(Double ingestRateLimit) { this.ingestRateLimit = ingestRateLimit; }
+
+    public Integer getIngestBurst() { return ingestBurst; }
+    public void setIngestBurst(Integer ingestBurst) { this.ingestBurst = ingestBurst; }
+
+    public Double getSampleRate() { return sampleRate; }
+    public void setSampleRate(Double sampleRate) { this.sampleRate = sampleRate; }
+
+    public Double getSampleKeepBelowConfidence() { return sampleKeepBelowConfidence; }
+    public void setSampleKeepBelowConfidence(Double sampleKeepBelowConfidence) { this.sampleKeepBelowConfidence = sampleKeepBelowConfidence; }
+
+    public Integer getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(Integer retentionDays) { this.retentionDays = retentionDays; }
+}
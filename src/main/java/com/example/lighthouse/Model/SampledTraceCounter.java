@@ -0,0 +1,59 @@
+// src/main/java/com/example/lighthouse/Model/SampledTraceCounter.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly totals of SDK traces that sampling dropped, so metrics still count
+ * traces that were never stored.
+ */
+@Entity
+@Table(
+        name = "sampled_trace_counters",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "provider", "bucket_start"})
+)
+public class SampledTraceCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "project_id", nullable = false)
+    private String projectId;
+
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // start of the hour
+
+    private long traceCount;
+    private long tokensUsed;
+    private double costUsd;
+    private long latencyMsSum;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProjectId() { return projectId; }
+    public void setProjectId(String projectId) { this.projectId = projectId; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getTraceCount() { return traceCount; }
+    public void setTraceCount(long traceCount) { this.traceCount = traceCount; }
+
+    public long getTokensUsed() { return tokensUsed; }
+    public void setTokensUsed(long tokensUsed) { this.tokensUsed = tokensUsed; }
+
+    public double getCostUsd() { return costUsd; }
+    public void setCostUsd(double costUsd) { this.costUsd = costUsd; }
+
+    public long getLatencyMsSum() { return latencyMsSum; }
+    public void setLatencyMsSum(long latencyMsSum) { this.latencyMsSum = latencyMsSum; }
+}
@@ -1,14 +1,24 @@
 // src/main/java/com/example/lighthouse/Model/Trace.java
 package com.example.lighthouse.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 // Add import for Project
 import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.service.HallucinationDetector;
+import com.example.lighthouse.service.TraceWriteListener;
 
 @Entity
-@Table(name = "traces")
+@EntityListeners(TraceWriteListener.class)
+@Table(name = "traces", indexes = {
+        // Keyset pagination on (created_at, id), overall and per project
+        @Index(name = "idx_traces_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_traces_project_created_at_id", columnList = "project_id, created_at, id")
+})
 public class Trace {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -20,19 +30,73 @@ public class Trace {
     @Column(columnDefinition = "TEXT")
     private String response;
 
-    @Column(columnDefinition = "TEXT")
-    private String hallucinationData; // JSON string with hallucination results
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private String hallucinationData; // HallucinationResult as JSON
+
+    // Extracted from hallucinationData so they can be filtered and indexed
+    private Integer unsupportedClaimCount;
+    private Integer supportedClaimCount;
+    private Boolean hasHallucinations;
+
+    @Transient
+    private HallucinationDetector.HallucinationResult hallucinationResult;
 
     private Double confidenceScore; // 0-100
 
+    private String hallucinationStatus; // "PENDING", "SCORED", "FAILED" - null when no check was requested
+
+    private String databaseConnectionId; // Connection the hallucination check runs against
+
+    private String idempotencyKey; // Client-supplied key that deduplicates SDK retries
+
     private Integer tokensUsed;
     private Double costUsd;
     private Integer latencyMs;
+    private Integer timeToFirstTokenMs; // Streamed responses only: time until the first chunk arrived
     private String provider; // "openai", "anthropic"
+    private String model; // "gpt-4o", "gemini-2.0-flash" - null when the caller did not say
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Deflated prompt, response and hallucinationData once the trace is cold;
+    // the text columns then only keep a preview (see TraceColdStorage)
+    @JsonIgnore
+    @Column(name = "cold_body")
+    private byte[] coldBody;
+
+    @Transient
+    private ColdTraceBody coldBodyCache;
+
+    // Long prompts and responses are shared through trace_bodies by content
+    // hash; the text column then only keeps a preview (see TraceBodyStore)
+    @JsonIgnore
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;
+
+    @JsonIgnore
+    @Column(name = "response_hash", length = 64)
+    private String responseHash;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "prompt_hash", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private TraceBody promptBody;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "response_hash", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private TraceBody responseBody;
+
+    @Transient
+    private String promptText;
+
+    @Transient
+    private String responseText;
+
     // New relationship field
     @ManyToOne
     @JoinColumn(name = "project_id", nullable = true)
@@ -42,18 +106,119 @@ public class Trace {
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
-    public String getPrompt() { return prompt; }
-    public void setPrompt(String prompt) { this.prompt = prompt; }
+    public String getPrompt() {
+        if (promptHash != null) {
+            if (promptText == null) {
+                promptText = promptBody != null ? promptBody.getBody() : prompt;
+            }
+            return promptText;
+        }
+        return coldBody != null && coldBody().prompt() != null ? coldBody().prompt() : prompt;
+    }
+    public void setPrompt(String prompt) {
+        thaw();
+        this.prompt = prompt;
+        this.promptHash = null;
+        this.promptBody = null;
+        this.promptText = null;
+    }
+
+    public String getResponse() {
+        if (responseHash != null) {
+            if (responseText == null) {
+                responseText = responseBody != null ? responseBody.getBody() : response;
+            }
+            return responseText;
+        }
+        return coldBody != null && coldBody().response() != null ? coldBody().response() : response;
+    }
+    public void setResponse(String response) {
+        thaw();
+        this.response = response;
+        this.responseHash = null;
+        this.responseBody = null;
+        this.responseText = null;
+    }
+
+    public String getHallucinationData() { return coldBody != null ? coldBody().hallucinationData() : hallucinationData; }
+    public void setHallucinationData(String hallucinationData) { thaw(); this.hallucinationData = hallucinationData; }
 
-    public String getResponse() { return response; }
-    public void setResponse(String response) { this.response = response; }
+    public Integer getUnsupportedClaimCount() { return unsupportedClaimCount; }
+    public void setUnsupportedClaimCount(Integer unsupportedClaimCount) { this.unsupportedClaimCount = unsupportedClaimCount; }
 
-    public String getHallucinationData() { return hallucinationData; }
-    public void setHallucinationData(String hallucinationData) { this.hallucinationData = hallucinationData; }
+    public Integer getSupportedClaimCount() { return supportedClaimCount; }
+    public void setSupportedClaimCount(Integer supportedClaimCount) { this.supportedClaimCount = supportedClaimCount; }
+
+    public Boolean getHasHallucinations() { return hasHallucinations; }
+    public void setHasHallucinations(Boolean hasHallucinations) { this.hasHallucinations = hasHallucinations; }
+
+    /**
+     * The result set by {@link #setHallucinationResult} in this request, if any;
+     * results of loaded traces are in hallucinationData and the extracted columns.
+     */
+    @JsonIgnore
+    public HallucinationDetector.HallucinationResult getHallucinationResult() { return hallucinationResult; }
+
+    /**
+     * Store a hallucination check result: its JSON, the extracted counts and its confidence score.
+     */
+    public void setHallucinationResult(HallucinationDetector.HallucinationResult result) {
+        setHallucinationData(result.toJson());
+        this.hallucinationResult = result;
+        this.unsupportedClaimCount = result.getUnsupportedClaimCount();
+        this.supportedClaimCount = result.getSupportedClaimCount();
+        this.hasHallucinations = result.isHasHallucinations();
+        this.confidenceScore = result.getConfidenceScore();
+    }
+
+    public byte[] getColdBody() { return coldBody; }
+    public void setColdBody(byte[] coldBody) { this.coldBody = coldBody; this.coldBodyCache = null; }
+
+    public String getPromptHash() { return promptHash; }
+    public String getResponseHash() { return responseHash; }
+
+    // What the prompt and response columns hold: a preview when the text is shared
+    @JsonIgnore
+    public String getStoredPrompt() { return prompt; }
+    @JsonIgnore
+    public String getStoredResponse() { return response; }
+
+    /**
+     * Keep the prompt in trace_bodies under the given hash and only its preview inline.
+     */
+    public void sharePrompt(String hash, String preview) {
+        String text = getPrompt();
+        thaw();
+        this.prompt = preview;
+        this.promptHash = hash;
+        this.promptBody = null;
+        this.promptText = text;
+    }
+
+    /**
+     * Keep the response in trace_bodies under the given hash and only its preview inline.
+     */
+    public void shareResponse(String hash, String preview) {
+        String text = getResponse();
+        thaw();
+        this.response = preview;
+        this.responseHash = hash;
+        this.responseBody = null;
+        this.responseText = text;
+    }
 
     public Double getConfidenceScore() { return confidenceScore; }
     public void setConfidenceScore(Double confidenceScore) { this.confidenceScore = confidenceScore; }
 
+    public String getHallucinationStatus() { return hallucinationStatus; }
+    public void setHallucinationStatus(String hallucinationStatus) { this.hallucinationStatus = hallucinationStatus; }
+
+    public String getDatabaseConnectionId() { return databaseConnectionId; }
+    public void setDatabaseConnectionId(String databaseConnectionId) { this.databaseConnectionId = databaseConnectionId; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
     public Integer getTokensUsed() { return tokensUsed; }
     public void setTokensUsed(Integer tokensUsed) { this.tokensUsed = tokensUsed; }
 
@@ -63,12 +228,41 @@ public class Trace {
     public Integer getLatencyMs() { return latencyMs; }
     public void setLatencyMs(Integer latencyMs) { this.latencyMs = latencyMs; }
 
+    public Integer getTimeToFirstTokenMs() { return timeToFirstTokenMs; }
+    public void setTimeToFirstTokenMs(Integer timeToFirstTokenMs) { this.timeToFirstTokenMs = timeToFirstTokenMs; }
+
     public String getProvider() { return provider; }
     public void setProvider(String provider) { this.provider = provider; }
 
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
     public Project getProject() { return project; }
     public void setProject(Project project) { this.project = project; }
+
+    private ColdTraceBody coldBody() {
+        if (coldBodyCache == null) {
+            coldBodyCache = ColdTraceBody.decode(coldBody);
+        }
+        return coldBodyCache;
+    }
+
+    // Changing a body makes the trace hot again, with all of its text restored
+    private void thaw() {
+        if (coldBody != null) {
+            ColdTraceBody body = coldBody();
+            // Shared bodies are not part of the cold body
+            if (body.prompt() != null) {
+                prompt = body.prompt();
+            }
+            if (body.response() != null) {
+                response = body.response();
+            }
+            hallucinationData = body.hallucinationData();
+            setColdBody(null);
+        }
+    }
 }
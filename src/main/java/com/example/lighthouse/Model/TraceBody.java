@@ -0,0 +1,55 @@
+// src/main/java/com/example/lighthouse/Model/TraceBody.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A prompt or response body shared by every trace with the same text, keyed
+ * by the hex SHA-256 of its UTF-8 bytes. Rows are immutable; lastUsedAt is
+ * moved forward at most once a day so unused bodies can be removed after
+ * the traces that referenced them expire.
+ */
+@Entity
+@Table(name = "trace_bodies", indexes = @Index(name = "idx_trace_bodies_last_used_at", columnList = "last_used_at"))
+public class TraceBody {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Column(name = "size_bytes", nullable = false)
+    private int sizeBytes;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "last_used_at", nullable = false)
+    private LocalDate lastUsedAt;
+
+    public TraceBody() {}
+
+    public TraceBody(String hash, String body, int sizeBytes) {
+        this.hash = hash;
+        this.body = body;
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+
+    public String getBody() { return body; }
+    public void setBody(String body) { this.body = body; }
+
+    public int getSizeBytes() { return sizeBytes; }
+    public void setSizeBytes(int sizeBytes) { this.sizeBytes = sizeBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDate getLastUsedAt() { return lastUsedAt; }
+    public void setLastUsedAt(LocalDate lastUsedAt) { this.lastUsedAt = lastUsedAt; }
+}
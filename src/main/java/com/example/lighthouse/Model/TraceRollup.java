@@ -0,0 +1,98 @@
+// src/main/java/com/example/lighthouse/Model/TraceRollup.java
+package com.example.lighthouse.Model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated trace metrics per project, provider and time bucket, kept
+ * up to date on the write path so stats never scan the traces table.
+ */
+@Entity
+@Table(
+        name = "trace_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"project_id", "provider", "granularity", "bucket_start"}),
+        indexes = @Index(name = "idx_trace_rollups_granularity_bucket", columnList = "granularity, bucket_start")
+)
+public class TraceRollup {
+    public static final String MINUTE = "MINUTE";
+    public static final String HOUR = "HOUR";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "project_id", nullable = false)
+    private String projectId; // "" for traces without a project
+
+    @Column(nullable = false)
+    private String provider;
+
+    @Column(nullable = false)
+    private String granularity; // "MINUTE" or "HOUR"
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    private long traceCount;
+    private double costUsd;
+    private long tokensUsed;
+    private long latencyMsSum;
+    private Integer latencyMsMin;
+    private Integer latencyMsMax;
+
+    // Traces with a confidence score, and those scored below the low-confidence threshold
+    @ColumnDefault("0")
+    private long scoredCount;
+
+    @ColumnDefault("0")
+    private long lowConfidenceCount;
+
+    // Serialized LatencyHistogram, merged in by TraceRollupService
+    @Column(name = "latency_histogram")
+    private byte[] latencyHistogram;
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProjectId() { return projectId; }
+    public void setProjectId(String projectId) { this.projectId = projectId; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider; }
+
+    public String getGranularity() { return granularity; }
+    public void setGranularity(String granularity) { this.granularity = granularity; }
+
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public void setBucketStart(LocalDateTime bucketStart) { this.bucketStart = bucketStart; }
+
+    public long getTraceCount() { return traceCount; }
+    public void setTraceCount(long traceCount) { this.traceCount = traceCount; }
+
+    public double getCostUsd() { return costUsd; }
+    public void setCostUsd(double costUsd) { this.costUsd = costUsd; }
+
+    public long getTokensUsed() { return tokensUsed; }
+    public void setTokensUsed(long tokensUsed) { this.tokensUsed = tokensUsed; }
+
+    public long getLatencyMsSum() { return latencyMsSum; }
+    public void setLatencyMsSum(long latencyMsSum) { this.latencyMsSum = latencyMsSum; }
+
+    public Integer getLatencyMsMin() { return latencyMsMin; }
+    public void setLatencyMsMin(Integer latencyMsMin) { this.latencyMsMin = latencyMsMin; }
+
+    public Integer getLatencyMsMax() { return latencyMsMax; }
+    public void setLatencyMsMax(Integer latencyMsMax) { this.latencyMsMax = latencyMsMax; }
+
+    public long getScoredCount() { return scoredCount; }
+    public void setScoredCount(long scoredCount) { this.scoredCount = scoredCount; }
+
+    public long getLowConfidenceCount() { return lowConfidenceCount; }
+    public void setLowConfidenceCount(long lowConfidenceCount) { this.lowConfidenceCount = lowConfidenceCount; }
+
+    public byte[] getLatencyHistogram() { return latencyHistogram; }
+    public void setLatencyHistogram(byte[] latencyHistogram) { this.latencyHistogram = latencyHistogram; }
+}
@@ -3,22 +3,39 @@ package com.example.lighthouse.config;
 
 import com.example.lighthouse.Model.Document;
 import com.example.lighthouse.repository.DocumentRepository;
+import com.example.lighthouse.service.ModelPriceService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+
 @Component
 public class DataSeeder implements CommandLineRunner {
 
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private ModelPriceService modelPriceService;
+
     @Override
     public void run(String... args) throws Exception {
         // Only seed if database is empty
         if (documentRepository.count() == 0) {
             seedSampleDocuments();
         }
+        if (modelPriceService.isEmpty()) {
+            seedModelPrices();
+        }
+    }
+
+    private void seedModelPrices() {
+        // Blended input/output rate, in effect for all existing traces
+        LocalDateTime since = LocalDateTime.of(2020, 1, 1, 0, 0);
+        modelPriceService.addPrice("gemini", "gemini-2.0-flash", 0.1875, since);
+
+        System.out.println("✅ Seeded model prices");
     }
 
     private void seedSampleDocuments() {
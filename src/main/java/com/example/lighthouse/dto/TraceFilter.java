@@ -0,0 +1,19 @@
+// src/main/java/com/example/lighthouse/dto/TraceFilter.java
+package com.example.lighthouse.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for trace listing. Null fields are not applied; the time
+ * range is [from, to).
+ */
+public record TraceFilter(
+        String projectId,
+        LocalDateTime from,
+        LocalDateTime to,
+        String provider,
+        Double minConfidence,
+        Double maxConfidence,
+        Integer minUnsupportedClaims,
+        Boolean hasHallucinations
+) {}
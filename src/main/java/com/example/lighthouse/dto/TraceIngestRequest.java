@@ -0,0 +1,85 @@
+// src/main/java/com/example/lighthouse/dto/TraceIngestRequest.java
+package com.example.lighthouse.dto;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Trace payload sent by the SDK. Bound straight from the request stream by
+ * Jackson, so numeric fields never pass through a Map or a String.
+ */
+public class TraceIngestRequest {
+    private String prompt = "";
+    private String response = "";
+    @JsonDeserialize(using = WholeNumber.class)
+    private Integer tokensUsed = 0; // Optional, 0 when missing or null
+    private Double costUsd; // Optional, computed from the model price table when omitted
+    @JsonDeserialize(using = WholeNumber.class)
+    private Integer latencyMs = 0; // Optional, 0 when missing or null
+    private String provider = "unknown";
+    private String model; // Optional, e.g. "gpt-4o"; prices and the cost ledger are per model
+    private Double confidenceScore; // Optional, 0-100
+    private String databaseConnectionId; // Optional, enables hallucination detection
+    private String idempotencyKey; // Optional, retries with the same key return the original trace
+    private boolean error; // Optional, the LLM call failed - always kept when the project samples
+
+    // Getters and Setters
+    public String getPrompt() { return prompt; }
+    public void setPrompt(String prompt) { this.prompt = prompt != null ? prompt : ""; }
+
+    public String getResponse() { return response; }
+    public void setResponse(String response) { this.response = response != null ? response : ""; }
+
+    public Integer getTokensUsed() { return tokensUsed; }
+    public void setTokensUsed(Integer tokensUsed) { this.tokensUsed = tokensUsed != null ? tokensUsed : 0; }
+
+    public Double getCostUsd() { return costUsd; }
+    public void setCostUsd(Double costUsd) { this.costUsd = costUsd; }
+
+    public Integer getLatencyMs() { return latencyMs; }
+    public void setLatencyMs(Integer latencyMs) { this.latencyMs = latencyMs != null ? latencyMs : 0; }
+
+    public String getProvider() { return provider; }
+    public void setProvider(String provider) { this.provider = provider != null ? provider : "unknown"; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public Double getConfidenceScore() { return confidenceScore; }
+    public void setConfidenceScore(Double confidenceScore) { this.confidenceScore = confidenceScore; }
+
+    public String getDatabaseConnectionId() { return databaseConnectionId; }
+    public void setDatabaseConnectionId(String databaseConnectionId) { this.databaseConnectionId = databaseConnectionId; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+
+    public boolean isError() { return error; }
+    public void setError(boolean error) { this.error = error; }
+
+    /**
+     * Integer that must be sent as a JSON integer. Jackson would otherwise
+     * truncate 12.7 to 12 and accept "12" as a string.
+     */
+    static class WholeNumber extends StdDeserializer<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        WholeNumber() {
+            super(Integer.class);
+        }
+
+        @Override
+        public Integer deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.currentToken() != JsonToken.VALUE_NUMBER_INT) {
+                return (Integer) context.reportInputMismatch(this, "%s must be a whole number", parser.currentName());
+            }
+            // Fails on values outside the int range
+            return parser.getIntValue();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+// src/main/java/com/example/lighthouse/dto/TraceSearchHit.java
+package com.example.lighthouse.dto;
+
+/**
+ * One full-text search result: the trace summary, its relevance rank and a
+ * highlighted snippet of the matching text.
+ */
+public record TraceSearchHit(
+        TraceSummary trace,
+        double rank,
+        String snippet
+) {}
@@ -0,0 +1,45 @@
+// src/main/java/com/example/lighthouse/dto/TraceSummary.java
+package com.example.lighthouse.dto;
+
+import com.example.lighthouse.Model.Trace;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trace row for list views: scalar columns, short previews of prompt and
+ * response, and the project ID instead of the Project entity. The full trace
+ * is available from GET /api/traces/{id}.
+ */
+public record TraceSummary(
+        String id,
+        String projectId,
+        String provider,
+        Integer tokensUsed,
+        Double costUsd,
+        Integer latencyMs,
+        Double confidenceScore,
+        String hallucinationStatus,
+        LocalDateTime createdAt,
+        String promptPreview,
+        String responsePreview
+) {
+    public static TraceSummary of(Trace trace, int previewLength) {
+        return new TraceSummary(
+                trace.getId(),
+                trace.getProject() != null ? trace.getProject().getId() : null,
+                trace.getProvider(),
+                trace.getTokensUsed(),
+                trace.getCostUsd(),
+                trace.getLatencyMs(),
+                trace.getConfidenceScore(),
+                trace.getHallucinationStatus(),
+                trace.getCreatedAt(),
+                preview(trace.getPrompt(), previewLength),
+                preview(trace.getResponse(), previewLength)
+        );
+    }
+
+    private static String preview(String text, int length) {
+        return text != null && text.length() > length ? text.substring(0, length) : text;
+    }
+}
@@ -0,0 +1,214 @@
+// src/main/java/com/example/lighthouse/filter/RequestDecompressionFilter.java
+package com.example.lighthouse.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses gzip or deflate encoded SDK request bodies on the fly. The body
+ * is inflated as a stream straight into the JSON parser, never buffered, and
+ * reading fails once the decompressed size passes the configured limit.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Value("${lighthouse.sdk.max-decompressed-bytes:52428800}")
+    private long maxDecompressedBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/sdk/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String encoding = request.getHeader("Content-Encoding");
+        if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        encoding = encoding.trim().toLowerCase();
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            // zstd and friends would need a native codec we do not ship
+            response.setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Unsupported Content-Encoding. Use gzip or deflate.\"}");
+            return;
+        }
+
+        filterChain.doFilter(new DecompressingRequestWrapper(request, encoding), response);
+    }
+
+    /**
+     * Thrown while reading once the inflated body grows past the limit.
+     */
+    public static class PayloadTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public PayloadTooLargeException(long limit) {
+            super("Decompressed request body exceeds " + limit + " bytes");
+        }
+    }
+
+    private class DecompressingRequestWrapper extends HttpServletRequestWrapper {
+        private final String encoding;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        DecompressingRequestWrapper(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (reader != null) {
+                throw new IllegalStateException("getReader() has already been called for this request");
+            }
+            if (inputStream == null) {
+                InputStream raw = super.getInputStream();
+                InputStream inflated = encoding.equals("deflate")
+                        ? new InflaterInputStream(raw)
+                        : new GZIPInputStream(raw, BUFFER_SIZE);
+                inputStream = new LimitedServletInputStream(inflated, maxDecompressedBytes);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encodingName = getCharacterEncoding();
+                Charset charset = encodingName != null ? Charset.forName(encodingName) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        // The body handed downstream is already decoded and its length unknown
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1L;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHiddenHeader(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHiddenHeader(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(this::isHiddenHeader);
+            return Collections.enumeration(names);
+        }
+
+        private boolean isHiddenHeader(String name) {
+            return "Content-Encoding".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name);
+        }
+    }
+
+    private static class LimitedServletInputStream extends ServletInputStream {
+        private final InputStream delegate;
+        private final long limit;
+        private long count;
+        private boolean finished;
+
+        LimitedServletInputStream(InputStream delegate, long limit) {
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b == -1) {
+                finished = true;
+            } else {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = delegate.read(buffer, offset, length);
+            if (n == -1) {
+                finished = true;
+            } else {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws PayloadTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new PayloadTooLargeException(limit);
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Async reads are not supported for compressed bodies");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+// src/main/java/com/example/lighthouse/repository/CostLedgerRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.CostLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface CostLedgerRepository extends JpaRepository<CostLedgerEntry, String>, CostLedgerRepositoryCustom {
+
+    interface CostBreakdown {
+        LocalDate getDay();
+        String getProvider();
+        String getModel();
+        Long getTraceCount();
+        Long getTokensUsed();
+        Double getCostUsd();
+    }
+
+    // Summed over projects
+    @Query("SELECT c.day AS day, c.provider AS provider, c.model AS model, SUM(c.traceCount) AS traceCount, " +
+            "SUM(c.tokensUsed) AS tokensUsed, SUM(c.costUsd) AS costUsd FROM CostLedgerEntry c " +
+            "WHERE c.day >= :from AND c.day < :to GROUP BY c.day, c.provider, c.model")
+    List<CostBreakdown> getBreakdown(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT c.day AS day, c.provider AS provider, c.model AS model, SUM(c.traceCount) AS traceCount, " +
+            "SUM(c.tokensUsed) AS tokensUsed, SUM(c.costUsd) AS costUsd FROM CostLedgerEntry c " +
+            "WHERE c.projectId = :projectId AND c.day >= :from AND c.day < :to GROUP BY c.day, c.provider, c.model")
+    List<CostBreakdown> getBreakdownByProjectId(@Param("projectId") String projectId,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/example/lighthouse/repository/CostLedgerRepositoryCustom.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.CostLedgerEntry;
+
+import java.util.List;
+
+public interface CostLedgerRepositoryCustom {
+
+    /**
+     * Add the given deltas to their ledger rows with one batched upsert.
+     */
+    void addAll(List<CostLedgerEntry> deltas);
+
+    /**
+     * Build the ledger from the traces table and sampling counters. Used once,
+     * when the ledger is still empty. Returns the number of rows created.
+     */
+    int backfill();
+}
@@ -0,0 +1,61 @@
+// src/main/java/com/example/lighthouse/repository/CostLedgerRepositoryCustomImpl.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.CostLedgerEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+public class CostLedgerRepositoryCustomImpl implements CostLedgerRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO cost_ledger (id, project_id, provider, model, day, trace_count, tokens_used, cost_usd) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (project_id, provider, model, day) DO UPDATE SET " +
+                    "trace_count = cost_ledger.trace_count + EXCLUDED.trace_count, " +
+                    "tokens_used = cost_ledger.tokens_used + EXCLUDED.tokens_used, " +
+                    "cost_usd = cost_ledger.cost_usd + EXCLUDED.cost_usd";
+
+    private static final String BACKFILL_TRACES_SQL =
+            "INSERT INTO cost_ledger (id, project_id, provider, model, day, trace_count, tokens_used, cost_usd) " +
+                    "SELECT gen_random_uuid()::text, COALESCE(project_id, ''), COALESCE(provider, 'unknown'), " +
+                    "COALESCE(model, 'unknown'), created_at::date, COUNT(*), COALESCE(SUM(tokens_used), 0), " +
+                    "COALESCE(SUM(cost_usd), 0) FROM traces GROUP BY 2, 3, 4, 5";
+
+    // Sampled-out traces are only counted per provider, not per model
+    private static final String BACKFILL_SAMPLED_SQL =
+            "INSERT INTO cost_ledger (id, project_id, provider, model, day, trace_count, tokens_used, cost_usd) " +
+                    "SELECT gen_random_uuid()::text, project_id, provider, 'unknown', bucket_start::date, " +
+                    "SUM(trace_count), SUM(tokens_used), SUM(cost_usd) FROM sampled_trace_counters GROUP BY 2, 3, 5 " +
+                    "ON CONFLICT (project_id, provider, model, day) DO UPDATE SET " +
+                    "trace_count = cost_ledger.trace_count + EXCLUDED.trace_count, " +
+                    "tokens_used = cost_ledger.tokens_used + EXCLUDED.tokens_used, " +
+                    "cost_usd = cost_ledger.cost_usd + EXCLUDED.cost_usd";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addAll(List<CostLedgerEntry> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, UUID.randomUUID().toString());
+            ps.setString(2, delta.getProjectId());
+            ps.setString(3, delta.getProvider());
+            ps.setString(4, delta.getModel());
+            ps.setObject(5, delta.getDay());
+            ps.setLong(6, delta.getTraceCount());
+            ps.setLong(7, delta.getTokensUsed());
+            ps.setDouble(8, delta.getCostUsd());
+        });
+    }
+
+    @Override
+    public int backfill() {
+        return jdbcTemplate.update(BACKFILL_TRACES_SQL) + jdbcTemplate.update(BACKFILL_SAMPLED_SQL);
+    }
+}
@@ -0,0 +1,23 @@
+// src/main/java/com/example/lighthouse/repository/IngestIdempotencyKeyRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.IngestIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IngestIdempotencyKeyRepository extends JpaRepository<IngestIdempotencyKey, String>, IngestIdempotencyKeyRepositoryCustom {
+
+    @Query("SELECT k.traceId FROM IngestIdempotencyKey k WHERE k.projectId = :projectId AND k.idempotencyKey = :key")
+    Optional<String> findTraceId(@Param("projectId") String projectId, @Param("key") String key);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IngestIdempotencyKey k WHERE k.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
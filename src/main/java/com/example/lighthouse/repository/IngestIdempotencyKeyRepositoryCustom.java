@@ -0,0 +1,23 @@
+// src/main/java/com/example/lighthouse/repository/IngestIdempotencyKeyRepositoryCustom.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.Trace;
+
+import java.util.List;
+import java.util.Map;
+
+public interface IngestIdempotencyKeyRepositoryCustom {
+
+    /**
+     * Claim the idempotency key of every trace in one statement. Returns, for
+     * each trace whose key was already taken, the ID of the trace that owns it.
+     * Must run in the same transaction as the trace insert.
+     */
+    Map<String, String> claimKeys(List<Trace> traces);
+
+    /**
+     * Claim one key for the given trace ID, outside any trace insert. Returns
+     * false when the key is already taken.
+     */
+    boolean claimKey(String projectId, String key, String traceId);
+}
@@ -0,0 +1,98 @@
+// src/main/java/com/example/lighthouse/repository/IngestIdempotencyKeyRepositoryCustomImpl.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.Trace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class IngestIdempotencyKeyRepositoryCustomImpl implements IngestIdempotencyKeyRepositoryCustom {
+
+    // Keys that already exist are skipped; RETURNING tells us which traces won
+    private static final String CLAIM_SQL =
+            "INSERT INTO ingest_idempotency_keys (id, project_id, idempotency_key, trace_id, created_at) " +
+                    "SELECT k.id, k.project_id, k.idempotency_key, k.trace_id, ? " +
+                    "FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[]) " +
+                    "AS k(id, project_id, idempotency_key, trace_id) " +
+                    "ON CONFLICT (project_id, idempotency_key) DO NOTHING " +
+                    "RETURNING trace_id";
+
+    private static final String OWNERS_SQL =
+            "SELECT k.project_id, k.idempotency_key, k.trace_id FROM ingest_idempotency_keys k " +
+                    "JOIN unnest(?::varchar[], ?::varchar[]) AS q(project_id, idempotency_key) " +
+                    "ON k.project_id = q.project_id AND k.idempotency_key = q.idempotency_key";
+
+    private static final String CLAIM_ONE_SQL =
+            "INSERT INTO ingest_idempotency_keys (id, project_id, idempotency_key, trace_id, created_at) " +
+                    "VALUES (?, ?, ?, ?, ?) ON CONFLICT (project_id, idempotency_key) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean claimKey(String projectId, String key, String traceId) {
+        return jdbcTemplate.update(CLAIM_ONE_SQL, UUID.randomUUID().toString(), projectId, key, traceId,
+                Timestamp.valueOf(LocalDateTime.now())) == 1;
+    }
+
+    @Override
+    public Map<String, String> claimKeys(List<Trace> traces) {
+        int size = traces.size();
+        String[] ids = new String[size];
+        String[] projectIds = new String[size];
+        String[] keys = new String[size];
+        String[] traceIds = new String[size];
+        for (int i = 0; i < size; i++) {
+            Trace trace = traces.get(i);
+            ids[i] = UUID.randomUUID().toString();
+            projectIds[i] = trace.getProject().getId();
+            keys[i] = trace.getIdempotencyKey();
+            traceIds[i] = trace.getId();
+        }
+
+        Set<String> claimed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLAIM_SQL);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            ps.setArray(2, con.createArrayOf("varchar", ids));
+            ps.setArray(3, con.createArrayOf("varchar", projectIds));
+            ps.setArray(4, con.createArrayOf("varchar", keys));
+            ps.setArray(5, con.createArrayOf("varchar", traceIds));
+            return ps;
+        }, rs -> {
+            claimed.add(rs.getString(1));
+        });
+
+        if (claimed.size() == size) {
+            return Map.of();
+        }
+
+        // Look up who owns the keys we lost, including keys taken earlier in this batch
+        Map<String, String> owners = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(OWNERS_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", projectIds));
+            ps.setArray(2, con.createArrayOf("varchar", keys));
+            return ps;
+        }, rs -> {
+            owners.put(rs.getString(1) + "\n" + rs.getString(2), rs.getString(3));
+        });
+
+        Map<String, String> duplicates = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            if (!claimed.contains(traceIds[i])) {
+                duplicates.put(traceIds[i], owners.get(projectIds[i] + "\n" + keys[i]));
+            }
+        }
+        return duplicates;
+    }
+}
@@ -0,0 +1,14 @@
+// src/main/java/com/example/lighthouse/repository/ModelPriceRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.ModelPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ModelPriceRepository extends JpaRepository<ModelPrice, String> {
+    List<ModelPrice> findAllByOrderByProviderAscModelAscEffectiveFromAsc();
+
+    boolean existsByProviderAndModelAndEffectiveFrom(String provider, String model, LocalDateTime effectiveFrom);
+}
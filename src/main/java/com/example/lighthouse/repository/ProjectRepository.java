@@ -10,4 +10,5 @@ public interface ProjectRepository extends JpaRepository<Project, String> {
     Optional<Project> findByApiKey(String apiKey);
     List<Project> findAllByOrderByCreatedAtDesc();
     List<Project> findByUserIdOrderByCreatedAtDesc(String userId);
+    List<Project> findByRetentionDaysIsNotNull();
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+// src/main/java/com/example/lighthouse/repository/SampledTraceCounterRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.SampledTraceCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SampledTraceCounterRepository extends JpaRepository<SampledTraceCounter, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO sampled_trace_counters " +
+            "(id, project_id, provider, bucket_start, trace_count, tokens_used, cost_usd, latency_ms_sum) " +
+            "VALUES (:id, :projectId, :provider, :bucketStart, :traceCount, :tokensUsed, :costUsd, :latencyMsSum) " +
+            "ON CONFLICT (project_id, provider, bucket_start) DO UPDATE SET " +
+            "trace_count = sampled_trace_counters.trace_count + EXCLUDED.trace_count, " +
+            "tokens_used = sampled_trace_counters.tokens_used + EXCLUDED.tokens_used, " +
+            "cost_usd = sampled_trace_counters.cost_usd + EXCLUDED.cost_usd, " +
+            "latency_ms_sum = sampled_trace_counters.latency_ms_sum + EXCLUDED.latency_ms_sum",
+            nativeQuery = true)
+    int addCounts(@Param("id") String id,
+                  @Param("projectId") String projectId,
+                  @Param("provider") String provider,
+                  @Param("bucketStart") LocalDateTime bucketStart,
+                  @Param("traceCount") long traceCount,
+                  @Param("tokensUsed") long tokensUsed,
+                  @Param("costUsd") double costUsd,
+                  @Param("latencyMsSum") long latencyMsSum);
+
+    @Query("SELECT SUM(c.traceCount) FROM SampledTraceCounter c")
+    Long getTotalCount();
+
+    @Query("SELECT SUM(c.costUsd) FROM SampledTraceCounter c")
+    Double getTotalCost();
+
+    @Query("SELECT SUM(c.latencyMsSum) FROM SampledTraceCounter c")
+    Long getTotalLatency();
+
+    @Query("SELECT SUM(c.traceCount) FROM SampledTraceCounter c WHERE c.projectId = :projectId")
+    Long getTotalCountByProjectId(@Param("projectId") String projectId);
+
+    @Query("SELECT SUM(c.costUsd) FROM SampledTraceCounter c WHERE c.projectId = :projectId")
+    Double getTotalCostByProjectId(@Param("projectId") String projectId);
+
+    @Query("SELECT SUM(c.latencyMsSum) FROM SampledTraceCounter c WHERE c.projectId = :projectId")
+    Long getTotalLatencyByProjectId(@Param("projectId") String projectId);
+}
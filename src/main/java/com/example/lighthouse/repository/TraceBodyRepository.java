@@ -0,0 +1,8 @@
+// src/main/java/com/example/lighthouse/repository/TraceBodyRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface TraceBodyRepository extends JpaRepository<TraceBody, String>, TraceBodyRepositoryCustom {
+}
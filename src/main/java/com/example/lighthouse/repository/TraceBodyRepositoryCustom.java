@@ -0,0 +1,21 @@
+// src/main/java/com/example/lighthouse/repository/TraceBodyRepositoryCustom.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TraceBodyRepositoryCustom {
+
+    /**
+     * Insert bodies that do not exist yet, in one batch. Existing bodies are
+     * left alone apart from moving lastUsedAt up to the given day.
+     */
+    void upsertAll(List<TraceBody> bodies, LocalDate usedOn);
+
+    /**
+     * Delete up to limit bodies last used before the given day.
+     */
+    int deleteUnusedBefore(LocalDate day, int limit);
+}
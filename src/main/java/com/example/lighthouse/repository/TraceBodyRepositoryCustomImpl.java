@@ -0,0 +1,47 @@
+// src/main/java/com/example/lighthouse/repository/TraceBodyRepositoryCustomImpl.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TraceBodyRepositoryCustomImpl implements TraceBodyRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO trace_bodies (hash, body, size_bytes, created_at, last_used_at) VALUES (?, ?, ?, ?, ?) " +
+                    // Only the date moves, and only the first time a body is seen each day
+                    "ON CONFLICT (hash) DO UPDATE SET last_used_at = EXCLUDED.last_used_at " +
+                    "WHERE trace_bodies.last_used_at < EXCLUDED.last_used_at";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void upsertAll(List<TraceBody> bodies, LocalDate usedOn) {
+        if (bodies.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Date day = Date.valueOf(usedOn);
+        List<Object[]> rows = new ArrayList<>(bodies.size());
+        for (TraceBody body : bodies) {
+            rows.add(new Object[]{body.getHash(), body.getBody(), body.getSizeBytes(), now, day});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    @Override
+    public int deleteUnusedBefore(LocalDate day, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM trace_bodies WHERE hash IN " +
+                        "(SELECT hash FROM trace_bodies WHERE last_used_at < ? LIMIT ?)",
+                Date.valueOf(day), limit);
+    }
+}
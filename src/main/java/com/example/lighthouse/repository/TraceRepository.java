@@ -2,14 +2,20 @@
 package com.example.lighthouse.repository;
 
 import com.example.lighthouse.Model.Trace;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface TraceRepository extends JpaRepository<Trace, String> {
-    List<Trace> findTop100ByOrderByCreatedAtDesc();
+public interface TraceRepository extends JpaRepository<Trace, String>, TraceRepositoryCustom {
+    @EntityGraph(attributePaths = {"promptBody", "responseBody"})
+    Optional<Trace> findWithBodiesById(String id);
 
     @Query("SELECT SUM(t.costUsd) FROM Trace t")
     Double getTotalCost();
@@ -20,11 +26,6 @@ public interface TraceRepository extends JpaRepository<Trace, String> {
     @Query("SELECT COUNT(t) FROM Trace t")
     Long getTotalRequests();
 
-// In your existing TraceRepository.java - ADD THIS METHOD
-// Keep all existing methods, just add:
-
-    List<Trace> findByProjectIdOrderByCreatedAtDesc(String projectId);
-
     // If you want stats by project:
     @Query("SELECT SUM(t.costUsd) FROM Trace t WHERE t.project.id = :projectId")
     Double getTotalCostByProjectId(@Param("projectId") String projectId);
@@ -34,4 +35,31 @@ public interface TraceRepository extends JpaRepository<Trace, String> {
 
     @Query("SELECT COUNT(t) FROM Trace t WHERE t.project.id = :projectId")
     Long getTotalRequestsByProjectId(@Param("projectId") String projectId);
+
+    // Background hallucination checks - the createdAt bounds let Postgres skip old partitions
+    List<Trace> findTop100ByHallucinationStatusAndCreatedAtBetweenOrderByCreatedAtAsc(String hallucinationStatus,
+                                                                                     LocalDateTime from,
+                                                                                     LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trace t SET t.hallucinationData = :data, t.confidenceScore = :score, " +
+            "t.unsupportedClaimCount = :unsupported, t.supportedClaimCount = :supported, " +
+            "t.hasHallucinations = :hasHallucinations, t.hallucinationStatus = :status " +
+            "WHERE t.id = :id AND t.createdAt = :createdAt")
+    int updateHallucinationResult(@Param("id") String id,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("data") String data,
+                                  @Param("score") Double score,
+                                  @Param("unsupported") Integer unsupported,
+                                  @Param("supported") Integer supported,
+                                  @Param("hasHallucinations") Boolean hasHallucinations,
+                                  @Param("status") String status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Trace t SET t.hallucinationStatus = :status WHERE t.id = :id AND t.createdAt = :createdAt")
+    int updateHallucinationStatus(@Param("id") String id,
+                                  @Param("createdAt") LocalDateTime createdAt,
+                                  @Param("status") String status);
 }
@@ -0,0 +1,55 @@
+// src/main/java/com/example/lighthouse/repository/TraceRepositoryCustom.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceCursor;
+import com.example.lighthouse.dto.TraceFilter;
+import com.example.lighthouse.dto.TraceSearchHit;
+import com.example.lighthouse.dto.TraceSummary;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface TraceRepositoryCustom {
+
+    /**
+     * Insert traces with multi-row INSERT statements. Ids that are not set yet
+     * are generated here, so callers can report them back to the SDK. Returns
+     * the traces that were written; ones already stored are skipped.
+     */
+    List<Trace> insertAll(List<Trace> traces);
+
+    /**
+     * One page of traces, newest first, ordered by (createdAt, id). Starts
+     * after the cursor when one is given. Uses keyset pagination, so the cost
+     * does not grow with the page number.
+     */
+    List<Trace> findPage(TraceFilter filter, TraceCursor after, int limit);
+
+    /**
+     * Same page as {@link #findPage} but selects only summary columns, with
+     * prompt and response cut to previewLength characters in the database.
+     */
+    List<TraceSummary> findSummaryPage(TraceFilter filter, TraceCursor after, int limit, int previewLength);
+
+    /**
+     * Full-text search over prompt and response with Postgres websearch
+     * syntax ("quoted phrases", OR, -excluded). By relevance, pages are taken
+     * with offset; by recency, after the cursor like {@link #findPage}.
+     */
+    List<TraceSearchHit> search(String query, TraceFilter filter, boolean byRelevance,
+                                TraceCursor after, int offset, int limit, int previewLength);
+
+    /**
+     * Pass every trace matching the filter to the consumer, oldest first,
+     * reading through a server-side cursor fetchSize rows at a time. Each
+     * trace carries only its project ID. Must run inside a transaction.
+     */
+    void forEach(TraceFilter filter, int fetchSize, Consumer<Trace> consumer);
+
+    /**
+     * Remove every trace at once with TRUNCATE, along with the idempotency keys
+     * and sampling counters that refer to them.
+     */
+    void truncateAll();
+}
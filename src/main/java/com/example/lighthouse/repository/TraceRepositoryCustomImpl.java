@@ -0,0 +1,352 @@
+// src/main/java/com/example/lighthouse/repository/TraceRepositoryCustomImpl.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceCursor;
+import com.example.lighthouse.dto.TraceFilter;
+import com.example.lighthouse.dto.TraceSearchHit;
+import com.example.lighthouse.dto.TraceSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public class TraceRepositoryCustomImpl implements TraceRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO traces (id, prompt, response, hallucination_data, confidence_score, " +
+                    "hallucination_status, database_connection_id, " +
+                    "tokens_used, cost_usd, latency_ms, provider, created_at, project_id, idempotency_key, " +
+                    "prompt_hash, response_hash, unsupported_claim_count, supported_claim_count, has_hallucinations, model, " +
+                    "time_to_first_token_ms) VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int INSERT_COLUMNS = 21;
+    // A spool replay may repeat traces that were already written; only new rows come back
+    private static final String INSERT_CONFLICT = " ON CONFLICT DO NOTHING RETURNING id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${lighthouse.sdk.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize;
+
+    @Override
+    public List<Trace> insertAll(List<Trace> traces) {
+        if (traces.isEmpty()) {
+            return List.of();
+        }
+
+        for (Trace trace : traces) {
+            if (trace.getId() == null) {
+                trace.setId(UUID.randomUUID().toString());
+            }
+            if (trace.getCreatedAt() == null) {
+                trace.setCreatedAt(LocalDateTime.now());
+            }
+        }
+
+        // One multi-row INSERT per chunk, so RETURNING tells which rows were written
+        Set<String> written = new HashSet<>();
+        for (int from = 0; from < traces.size(); from += jdbcBatchSize) {
+            List<Trace> chunk = traces.subList(from, Math.min(traces.size(), from + jdbcBatchSize));
+            String sql = INSERT_SQL + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW)) + INSERT_CONFLICT;
+            written.addAll(jdbcTemplate.query(sql, ps -> {
+                for (int i = 0; i < chunk.size(); i++) {
+                    bindTrace(ps, i * INSERT_COLUMNS, chunk.get(i));
+                }
+            }, (rs, rowNum) -> rs.getString(1)));
+        }
+
+        List<Trace> inserted = new ArrayList<>(written.size());
+        for (Trace trace : traces) {
+            if (written.contains(trace.getId())) {
+                inserted.add(trace);
+            }
+        }
+        return inserted;
+    }
+
+    private void bindTrace(PreparedStatement ps, int offset, Trace trace) throws SQLException {
+        ps.setString(offset + 1, trace.getId());
+        ps.setString(offset + 2, trace.getStoredPrompt());
+        ps.setString(offset + 3, trace.getStoredResponse());
+        ps.setString(offset + 4, trace.getHallucinationData());
+        ps.setObject(offset + 5, trace.getConfidenceScore(), Types.DOUBLE);
+        ps.setString(offset + 6, trace.getHallucinationStatus());
+        ps.setString(offset + 7, trace.getDatabaseConnectionId());
+        ps.setObject(offset + 8, trace.getTokensUsed(), Types.INTEGER);
+        ps.setObject(offset + 9, trace.getCostUsd(), Types.DOUBLE);
+        ps.setObject(offset + 10, trace.getLatencyMs(), Types.INTEGER);
+        ps.setString(offset + 11, trace.getProvider());
+        ps.setObject(offset + 12, trace.getCreatedAt());
+        ps.setString(offset + 13, trace.getProject() != null ? trace.getProject().getId() : null);
+        ps.setString(offset + 14, trace.getIdempotencyKey());
+        ps.setString(offset + 15, trace.getPromptHash());
+        ps.setString(offset + 16, trace.getResponseHash());
+        ps.setObject(offset + 17, trace.getUnsupportedClaimCount(), Types.INTEGER);
+        ps.setObject(offset + 18, trace.getSupportedClaimCount(), Types.INTEGER);
+        ps.setObject(offset + 19, trace.getHasHallucinations(), Types.BOOLEAN);
+        ps.setString(offset + 20, trace.getModel());
+        ps.setObject(offset + 21, trace.getTimeToFirstTokenMs(), Types.INTEGER);
+    }
+
+    // t.project.id reads the foreign key column, so no Project is loaded per row
+    private static final String SUMMARY_SELECT =
+            "SELECT new com.example.lighthouse.dto.TraceSummary(" +
+                    "t.id, t.project.id, t.provider, t.tokensUsed, t.costUsd, t.latencyMs, " +
+                    "t.confidenceScore, t.hallucinationStatus, t.createdAt, " +
+                    "SUBSTRING(t.prompt, 1, :previewLength), SUBSTRING(t.response, 1, :previewLength)) " +
+                    "FROM Trace t WHERE 1 = 1";
+
+    // Matches are ranked and paged first; snippets are built for the page only
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT websearch_to_tsquery('english', ?) AS query), " +
+                    "hits AS (SELECT t.id, t.project_id, t.provider, t.tokens_used, t.cost_usd, t.latency_ms, " +
+                    "t.confidence_score, t.hallucination_status, t.created_at, t.prompt, t.response, " +
+                    "t.prompt_hash, t.response_hash, t.search_vector " +
+                    "FROM traces t, q WHERE t.search_vector @@ q.query%s ORDER BY %s LIMIT ? OFFSET ?) " +
+                    "SELECT h.id, h.project_id, h.provider, h.tokens_used, h.cost_usd, h.latency_ms, " +
+                    "h.confidence_score, h.hallucination_status, h.created_at, left(h.prompt, ?), left(h.response, ?), " +
+                    "ts_rank_cd(h.search_vector, q.query), " +
+                    "ts_headline('english', left(coalesce(pb.body, h.prompt, '') || ' ' || " +
+                    "coalesce(rb.body, h.response, ''), 20000), q.query, 'MaxFragments=2, MaxWords=20, MinWords=5') " +
+                    "FROM hits h CROSS JOIN q " +
+                    "LEFT JOIN trace_bodies pb ON pb.hash = h.prompt_hash " +
+                    "LEFT JOIN trace_bodies rb ON rb.hash = h.response_hash ORDER BY %s";
+
+    @Override
+    public List<TraceSearchHit> search(String query, TraceFilter filter, boolean byRelevance,
+                                       TraceCursor after, int offset, int limit, int previewLength) {
+        StringBuilder where = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        params.add(query);
+        if (filter.projectId() != null) {
+            where.append(" AND t.project_id = ?");
+            params.add(filter.projectId());
+        }
+        if (filter.from() != null) {
+            where.append(" AND t.created_at >= ?");
+            params.add(filter.from());
+        }
+        if (filter.to() != null) {
+            where.append(" AND t.created_at < ?");
+            params.add(filter.to());
+        }
+        if (filter.provider() != null) {
+            where.append(" AND t.provider = ?");
+            params.add(filter.provider());
+        }
+        if (filter.minConfidence() != null) {
+            where.append(" AND t.confidence_score >= ?");
+            params.add(filter.minConfidence());
+        }
+        if (filter.maxConfidence() != null) {
+            where.append(" AND t.confidence_score <= ?");
+            params.add(filter.maxConfidence());
+        }
+        if (filter.minUnsupportedClaims() != null) {
+            where.append(" AND t.unsupported_claim_count >= ?");
+            params.add(filter.minUnsupportedClaims());
+        }
+        if (filter.hasHallucinations() != null) {
+            where.append(" AND t.has_hallucinations = ?");
+            params.add(filter.hasHallucinations());
+        }
+        if (after != null) {
+            where.append(" AND (t.created_at < ? OR (t.created_at = ? AND t.id < ?))");
+            params.add(after.createdAt());
+            params.add(after.createdAt());
+            params.add(after.id());
+        }
+        params.add(limit);
+        params.add(offset);
+        params.add(previewLength);
+        params.add(previewLength);
+
+        String innerOrder = byRelevance
+                ? "ts_rank_cd(t.search_vector, q.query) DESC, t.created_at DESC, t.id DESC"
+                : "t.created_at DESC, t.id DESC";
+        // Column 12 is the rank
+        String outerOrder = byRelevance ? "12 DESC, h.created_at DESC, h.id DESC" : "h.created_at DESC, h.id DESC";
+        String sql = String.format(SEARCH_SQL, where, innerOrder, outerOrder);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new TraceSearchHit(
+                new TraceSummary(
+                        rs.getString(1),
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getObject(4, Integer.class),
+                        rs.getObject(5, Double.class),
+                        rs.getObject(6, Integer.class),
+                        rs.getObject(7, Double.class),
+                        rs.getString(8),
+                        rs.getObject(9, LocalDateTime.class),
+                        rs.getString(10),
+                        rs.getString(11)
+                ),
+                rs.getDouble(12),
+                rs.getString(13)
+        ), params.toArray());
+    }
+
+    private static final String EXPORT_SQL =
+            "SELECT t.id, t.project_id, t.provider, t.created_at, t.tokens_used, t.cost_usd, t.latency_ms, " +
+                    "t.confidence_score, t.hallucination_status, t.database_connection_id, " +
+                    // Shared bodies are joined in; cold bodies are decoded by Trace
+                    "coalesce(pb.body, t.prompt), coalesce(rb.body, t.response), t.hallucination_data, t.cold_body, " +
+                    "t.unsupported_claim_count, t.has_hallucinations, t.model, t.time_to_first_token_ms " +
+                    "FROM traces t " +
+                    "LEFT JOIN trace_bodies pb ON pb.hash = t.prompt_hash " +
+                    "LEFT JOIN trace_bodies rb ON rb.hash = t.response_hash WHERE 1 = 1";
+
+    @Override
+    public void forEach(TraceFilter filter, int fetchSize, Consumer<Trace> consumer) {
+        StringBuilder sql = new StringBuilder(EXPORT_SQL);
+        List<Object> params = new ArrayList<>();
+        if (filter.projectId() != null) {
+            sql.append(" AND t.project_id = ?");
+            params.add(filter.projectId());
+        }
+        if (filter.from() != null) {
+            sql.append(" AND t.created_at >= ?");
+            params.add(filter.from());
+        }
+        if (filter.to() != null) {
+            sql.append(" AND t.created_at < ?");
+            params.add(filter.to());
+        }
+        if (filter.provider() != null) {
+            sql.append(" AND t.provider = ?");
+            params.add(filter.provider());
+        }
+        sql.append(" ORDER BY t.created_at, t.id");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            // With autocommit off this makes Postgres stream through a cursor
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, rs -> {
+            Trace trace = new Trace();
+            trace.setId(rs.getString(1));
+            String projectId = rs.getString(2);
+            if (projectId != null) {
+                Project project = new Project();
+                project.setId(projectId);
+                trace.setProject(project);
+            }
+            trace.setProvider(rs.getString(3));
+            trace.setCreatedAt(rs.getObject(4, LocalDateTime.class));
+            trace.setTokensUsed(rs.getObject(5, Integer.class));
+            trace.setCostUsd(rs.getObject(6, Double.class));
+            trace.setLatencyMs(rs.getObject(7, Integer.class));
+            trace.setConfidenceScore(rs.getObject(8, Double.class));
+            trace.setHallucinationStatus(rs.getString(9));
+            trace.setDatabaseConnectionId(rs.getString(10));
+            trace.setPrompt(rs.getString(11));
+            trace.setResponse(rs.getString(12));
+            trace.setHallucinationData(rs.getString(13));
+            // Cold traces only keep previews in the text columns
+            trace.setColdBody(rs.getBytes(14));
+            trace.setUnsupportedClaimCount(rs.getObject(15, Integer.class));
+            trace.setHasHallucinations(rs.getObject(16, Boolean.class));
+            trace.setModel(rs.getString(17));
+            trace.setTimeToFirstTokenMs(rs.getObject(18, Integer.class));
+            consumer.accept(trace);
+        });
+    }
+
+    @Override
+    public void truncateAll() {
+        jdbcTemplate.execute("TRUNCATE TABLE traces, ingest_idempotency_keys, sampled_trace_counters, trace_rollups, trace_bodies, cost_ledger");
+    }
+
+    @Override
+    public List<Trace> findPage(TraceFilter filter, TraceCursor after, int limit) {
+        // Shared prompt/response bodies are fetched in the same query
+        return page("SELECT t FROM Trace t LEFT JOIN FETCH t.promptBody LEFT JOIN FETCH t.responseBody WHERE 1 = 1",
+                Trace.class, new HashMap<>(), filter, after, limit);
+    }
+
+    @Override
+    public List<TraceSummary> findSummaryPage(TraceFilter filter, TraceCursor after, int limit, int previewLength) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("previewLength", previewLength);
+        return page(SUMMARY_SELECT, TraceSummary.class, params, filter, after, limit);
+    }
+
+    private <T> List<T> page(String select, Class<T> type, Map<String, Object> params,
+                             TraceFilter filter, TraceCursor after, int limit) {
+        StringBuilder jpql = new StringBuilder(select);
+        appendFilter(jpql, params, filter);
+
+        if (after != null) {
+            jpql.append(" AND (t.createdAt < :afterCreatedAt OR (t.createdAt = :afterCreatedAt AND t.id < :afterId))");
+            params.put("afterCreatedAt", after.createdAt());
+            params.put("afterId", after.id());
+        }
+        jpql.append(" ORDER BY t.createdAt DESC, t.id DESC");
+
+        TypedQuery<T> query = entityManager.createQuery(jpql.toString(), type);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private void appendFilter(StringBuilder jpql, Map<String, Object> params, TraceFilter filter) {
+        if (filter.projectId() != null) {
+            jpql.append(" AND t.project.id = :projectId");
+            params.put("projectId", filter.projectId());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND t.createdAt >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND t.createdAt < :to");
+            params.put("to", filter.to());
+        }
+        if (filter.provider() != null) {
+            jpql.append(" AND t.provider = :provider");
+            params.put("provider", filter.provider());
+        }
+        if (filter.minConfidence() != null) {
+            jpql.append(" AND t.confidenceScore >= :minConfidence");
+            params.put("minConfidence", filter.minConfidence());
+        }
+        if (filter.maxConfidence() != null) {
+            jpql.append(" AND t.confidenceScore <= :maxConfidence");
+            params.put("maxConfidence", filter.maxConfidence());
+        }
+        if (filter.minUnsupportedClaims() != null) {
+            jpql.append(" AND t.unsupportedClaimCount >= :minUnsupportedClaims");
+            params.put("minUnsupportedClaims", filter.minUnsupportedClaims());
+        }
+        if (filter.hasHallucinations() != null) {
+            jpql.append(" AND t.hasHallucinations = :hasHallucinations");
+            params.put("hasHallucinations", filter.hasHallucinations());
+        }
+    }
+}
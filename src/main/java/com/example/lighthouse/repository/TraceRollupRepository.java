@@ -0,0 +1,78 @@
+// src/main/java/com/example/lighthouse/repository/TraceRollupRepository.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TraceRollupRepository extends JpaRepository<TraceRollup, String>, TraceRollupRepositoryCustom {
+
+    interface RollupTotals {
+        Long getTraceCount();
+        Double getCostUsd();
+        Long getTokensUsed();
+        Long getLatencyMsSum();
+        Integer getLatencyMsMin();
+        Integer getLatencyMsMax();
+        Long getScoredCount();
+        Long getLowConfidenceCount();
+    }
+
+    @Query("SELECT SUM(r.traceCount) AS traceCount, SUM(r.costUsd) AS costUsd, SUM(r.tokensUsed) AS tokensUsed, " +
+            "SUM(r.latencyMsSum) AS latencyMsSum, MIN(r.latencyMsMin) AS latencyMsMin, MAX(r.latencyMsMax) AS latencyMsMax, " +
+            "SUM(r.scoredCount) AS scoredCount, SUM(r.lowConfidenceCount) AS lowConfidenceCount " +
+            "FROM TraceRollup r WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals getTotals(@Param("granularity") String granularity,
+                           @Param("from") LocalDateTime from,
+                           @Param("to") LocalDateTime to);
+
+    @Query("SELECT SUM(r.traceCount) AS traceCount, SUM(r.costUsd) AS costUsd, SUM(r.tokensUsed) AS tokensUsed, " +
+            "SUM(r.latencyMsSum) AS latencyMsSum, MIN(r.latencyMsMin) AS latencyMsMin, MAX(r.latencyMsMax) AS latencyMsMax, " +
+            "SUM(r.scoredCount) AS scoredCount, SUM(r.lowConfidenceCount) AS lowConfidenceCount " +
+            "FROM TraceRollup r WHERE r.granularity = :granularity AND r.projectId = :projectId " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    RollupTotals getTotalsByProjectId(@Param("projectId") String projectId,
+                                      @Param("granularity") String granularity,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.latencyHistogram FROM TraceRollup r WHERE r.granularity = :granularity " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.latencyHistogram IS NOT NULL")
+    List<byte[]> findHistograms(@Param("granularity") String granularity,
+                                @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    @Query("SELECT r.latencyHistogram FROM TraceRollup r WHERE r.granularity = :granularity AND r.projectId = :projectId " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to AND r.latencyHistogram IS NOT NULL")
+    List<byte[]> findHistogramsByProjectId(@Param("projectId") String projectId,
+                                           @Param("granularity") String granularity,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to);
+
+    boolean existsByLatencyHistogramIsNotNull();
+
+    List<TraceRollup> findByProjectIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(
+            String projectId, String granularity, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TraceRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") String granularity, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TraceRollup r WHERE r.bucketStart < :cutoff")
+    int deleteBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TraceRollup r WHERE r.projectId = :projectId AND r.bucketStart < :cutoff")
+    int deleteByProjectIdBefore(@Param("projectId") String projectId, @Param("cutoff") LocalDateTime cutoff);
+}
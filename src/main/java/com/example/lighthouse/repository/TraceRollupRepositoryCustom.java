@@ -0,0 +1,60 @@
+// src/main/java/com/example/lighthouse/repository/TraceRollupRepositoryCustom.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface TraceRollupRepositoryCustom {
+
+    /**
+     * Add the given deltas to their buckets with one batched upsert: counts
+     * and sums are added, min and max are merged. Latency histograms are not
+     * written here; new rows start without one.
+     */
+    void addAll(List<TraceRollup> deltas);
+
+    /**
+     * Stored histograms of the given buckets (those that have one), returned
+     * as rollups carrying only their key and histogram.
+     */
+    List<TraceRollup> findHistograms(List<TraceRollup> keys);
+
+    void updateHistograms(List<TraceRollup> rollups);
+
+    /**
+     * Totals of the traces created in [from, to), grouped by project,
+     * provider, minute and latency.
+     */
+    List<LatencyGroup> findLatencyGroups(LocalDateTime from, LocalDateTime to, double lowConfidenceBelow);
+
+    record LatencyGroup(String projectId, String provider, LocalDateTime minute, Integer latencyMs,
+                        long traceCount, double costUsd, long tokensUsed, long scoredCount, long lowConfidenceCount) {}
+
+    /**
+     * Creation time of the oldest trace in [from, before), or null if there is none.
+     */
+    LocalDateTime findNextTraceTime(LocalDateTime from, LocalDateTime before);
+
+    /**
+     * Progress of building rollups from existing traces: traces created before
+     * cutoff are added by the backfill, those created before doneUntil already
+     * have been. The row only exists while a backfill is unfinished.
+     */
+    record BackfillProgress(LocalDateTime cutoff, LocalDateTime doneUntil) {}
+
+    void createBackfillTable();
+
+    BackfillProgress findBackfillProgress();
+
+    /**
+     * Record a backfill of the traces created before cutoff and add the
+     * sampling counters, which already are totals, to the hour rollups.
+     */
+    void startBackfill(LocalDateTime cutoff);
+
+    void saveBackfillPosition(LocalDateTime doneUntil);
+
+    void finishBackfill();
+}
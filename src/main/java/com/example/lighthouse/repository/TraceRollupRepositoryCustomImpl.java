@@ -0,0 +1,192 @@
+// src/main/java/com/example/lighthouse/repository/TraceRollupRepositoryCustomImpl.java
+package com.example.lighthouse.repository;
+
+import com.example.lighthouse.Model.TraceRollup;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class TraceRollupRepositoryCustomImpl implements TraceRollupRepositoryCustom {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO trace_rollups (id, project_id, provider, granularity, bucket_start, " +
+                    "trace_count, cost_usd, tokens_used, latency_ms_sum, latency_ms_min, latency_ms_max, " +
+                    "scored_count, low_confidence_count) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (project_id, provider, granularity, bucket_start) DO UPDATE SET " +
+                    "trace_count = trace_rollups.trace_count + EXCLUDED.trace_count, " +
+                    "cost_usd = trace_rollups.cost_usd + EXCLUDED.cost_usd, " +
+                    "tokens_used = trace_rollups.tokens_used + EXCLUDED.tokens_used, " +
+                    "latency_ms_sum = trace_rollups.latency_ms_sum + EXCLUDED.latency_ms_sum, " +
+                    "latency_ms_min = LEAST(trace_rollups.latency_ms_min, EXCLUDED.latency_ms_min), " +
+                    "latency_ms_max = GREATEST(trace_rollups.latency_ms_max, EXCLUDED.latency_ms_max), " +
+                    "scored_count = trace_rollups.scored_count + EXCLUDED.scored_count, " +
+                    "low_confidence_count = trace_rollups.low_confidence_count + EXCLUDED.low_confidence_count";
+
+    // Sampled-out traces only have hourly totals, without min and max latency
+    private static final String BACKFILL_SAMPLED_SQL =
+            "INSERT INTO trace_rollups (id, project_id, provider, granularity, bucket_start, " +
+                    "trace_count, cost_usd, tokens_used, latency_ms_sum, latency_ms_min, latency_ms_max, " +
+                    "scored_count, low_confidence_count) " +
+                    "SELECT gen_random_uuid()::text, project_id, provider, 'HOUR', bucket_start, " +
+                    "trace_count, cost_usd, tokens_used, latency_ms_sum, NULL, NULL, 0, 0 FROM sampled_trace_counters " +
+                    "ON CONFLICT (project_id, provider, granularity, bucket_start) DO UPDATE SET " +
+                    "trace_count = trace_rollups.trace_count + EXCLUDED.trace_count, " +
+                    "cost_usd = trace_rollups.cost_usd + EXCLUDED.cost_usd, " +
+                    "tokens_used = trace_rollups.tokens_used + EXCLUDED.tokens_used, " +
+                    "latency_ms_sum = trace_rollups.latency_ms_sum + EXCLUDED.latency_ms_sum";
+
+    // The upsert in the same transaction has already locked these rows
+    private static final String FIND_HISTOGRAMS_SQL =
+            "SELECT r.project_id, r.provider, r.granularity, r.bucket_start, r.latency_histogram FROM trace_rollups r " +
+                    "JOIN unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::timestamp[]) " +
+                    "AS k(project_id, provider, granularity, bucket_start) " +
+                    "ON r.project_id = k.project_id AND r.provider = k.provider " +
+                    "AND r.granularity = k.granularity AND r.bucket_start = k.bucket_start " +
+                    "WHERE r.latency_histogram IS NOT NULL";
+
+    private static final String UPDATE_HISTOGRAM_SQL =
+            "UPDATE trace_rollups SET latency_histogram = ? " +
+                    "WHERE project_id = ? AND provider = ? AND granularity = ? AND bucket_start = ?";
+
+    // One row per (project, provider, minute, latency), so histograms can be built too
+    private static final String LATENCY_GROUPS_SQL =
+            "SELECT COALESCE(project_id, ''), COALESCE(provider, 'unknown'), date_trunc('minute', created_at), " +
+                    "latency_ms, COUNT(*), COALESCE(SUM(cost_usd), 0), COALESCE(SUM(tokens_used), 0), " +
+                    "COUNT(confidence_score), COUNT(*) FILTER (WHERE confidence_score < ?) " +
+                    "FROM traces WHERE created_at >= ? AND created_at < ? GROUP BY 1, 2, 3, 4";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addAll(List<TraceRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, deltas.size(), (ps, delta) -> {
+            ps.setString(1, UUID.randomUUID().toString());
+            ps.setString(2, delta.getProjectId());
+            ps.setString(3, delta.getProvider());
+            ps.setString(4, delta.getGranularity());
+            ps.setObject(5, delta.getBucketStart());
+            ps.setLong(6, delta.getTraceCount());
+            ps.setDouble(7, delta.getCostUsd());
+            ps.setLong(8, delta.getTokensUsed());
+            ps.setLong(9, delta.getLatencyMsSum());
+            ps.setObject(10, delta.getLatencyMsMin(), Types.INTEGER);
+            ps.setObject(11, delta.getLatencyMsMax(), Types.INTEGER);
+            ps.setLong(12, delta.getScoredCount());
+            ps.setLong(13, delta.getLowConfidenceCount());
+        });
+    }
+
+    @Override
+    public List<TraceRollup> findHistograms(List<TraceRollup> keys) {
+        int size = keys.size();
+        String[] projectIds = new String[size];
+        String[] providers = new String[size];
+        String[] granularities = new String[size];
+        Timestamp[] bucketStarts = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            TraceRollup key = keys.get(i);
+            projectIds[i] = key.getProjectId();
+            providers[i] = key.getProvider();
+            granularities[i] = key.getGranularity();
+            bucketStarts[i] = Timestamp.valueOf(key.getBucketStart());
+        }
+
+        List<TraceRollup> stored = new ArrayList<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(FIND_HISTOGRAMS_SQL);
+            ps.setArray(1, con.createArrayOf("varchar", projectIds));
+            ps.setArray(2, con.createArrayOf("varchar", providers));
+            ps.setArray(3, con.createArrayOf("varchar", granularities));
+            ps.setArray(4, con.createArrayOf("timestamp", bucketStarts));
+            return ps;
+        }, rs -> {
+            TraceRollup rollup = new TraceRollup();
+            rollup.setProjectId(rs.getString(1));
+            rollup.setProvider(rs.getString(2));
+            rollup.setGranularity(rs.getString(3));
+            rollup.setBucketStart(rs.getObject(4, LocalDateTime.class));
+            rollup.setLatencyHistogram(rs.getBytes(5));
+            stored.add(rollup);
+        });
+        return stored;
+    }
+
+    @Override
+    public void updateHistograms(List<TraceRollup> rollups) {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_HISTOGRAM_SQL, rollups, rollups.size(), (ps, rollup) -> {
+            ps.setBytes(1, rollup.getLatencyHistogram());
+            ps.setString(2, rollup.getProjectId());
+            ps.setString(3, rollup.getProvider());
+            ps.setString(4, rollup.getGranularity());
+            ps.setObject(5, rollup.getBucketStart());
+        });
+    }
+
+    @Override
+    public List<LatencyGroup> findLatencyGroups(LocalDateTime from, LocalDateTime to, double lowConfidenceBelow) {
+        return jdbcTemplate.query(LATENCY_GROUPS_SQL, (rs, rowNum) -> new LatencyGroup(
+                rs.getString(1),
+                rs.getString(2),
+                rs.getObject(3, LocalDateTime.class),
+                rs.getObject(4, Integer.class),
+                rs.getLong(5),
+                rs.getDouble(6),
+                rs.getLong(7),
+                rs.getLong(8),
+                rs.getLong(9)
+        ), lowConfidenceBelow, from, to);
+    }
+
+    @Override
+    public LocalDateTime findNextTraceTime(LocalDateTime from, LocalDateTime before) {
+        return jdbcTemplate.queryForObject(
+                "SELECT min(created_at) FROM traces WHERE created_at >= ? AND created_at < ?",
+                LocalDateTime.class, from, before);
+    }
+
+    @Override
+    public void createBackfillTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS trace_rollup_backfill (" +
+                "id int PRIMARY KEY, cutoff timestamp NOT NULL, done_until timestamp)");
+    }
+
+    @Override
+    public BackfillProgress findBackfillProgress() {
+        List<BackfillProgress> progress = jdbcTemplate.query(
+                "SELECT cutoff, done_until FROM trace_rollup_backfill WHERE id = 1",
+                (rs, rowNum) -> new BackfillProgress(
+                        rs.getObject(1, LocalDateTime.class), rs.getObject(2, LocalDateTime.class)));
+        return progress.isEmpty() ? null : progress.get(0);
+    }
+
+    @Override
+    public void startBackfill(LocalDateTime cutoff) {
+        jdbcTemplate.update("INSERT INTO trace_rollup_backfill (id, cutoff) VALUES (1, ?)", cutoff);
+        jdbcTemplate.update(BACKFILL_SAMPLED_SQL);
+    }
+
+    @Override
+    public void saveBackfillPosition(LocalDateTime doneUntil) {
+        jdbcTemplate.update("UPDATE trace_rollup_backfill SET done_until = ? WHERE id = 1", doneUntil);
+    }
+
+    @Override
+    public void finishBackfill() {
+        jdbcTemplate.update("DELETE FROM trace_rollup_backfill");
+    }
+}
@@ -9,19 +9,23 @@ import com.example.lighthouse.repository.TraceRepository;
 import com.example.lighthouse.repository.ApiCredentialRepository;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class AIService {
+    private static final Pattern MODEL_IN_URL = Pattern.compile("/models/([^:/]+)");
 
     @Value("${gemini.api.key}")
     private String defaultGeminiApiKey; // Fallback key
@@ -44,7 +48,15 @@ public class AIService {
     @Autowired
     private HallucinationDetector hallucinationDetector;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Autowired
+    private TraceBodyStore traceBodyStore;
+
+    @Autowired
+    private ModelPriceService modelPriceService;
+
+    @Autowired
+    private LlmProviderClient llmProviderClient;
+
     private final Gson gson = new Gson();
 
     // Helper method to get API key (user's key or fallback)
@@ -59,38 +71,26 @@ public class AIService {
         return defaultGeminiApiKey;
     }
 
+    // Long prompts (e.g. the database context) are stored once and shared between traces
+    private Trace save(Trace trace) {
+        traceBodyStore.share(List.of(trace));
+        return traceRepository.save(trace);
+    }
+
     // Execute query without database
     public Trace executeQuery(String prompt) {
         Trace trace = new Trace();
         trace.setPrompt(prompt);
         trace.setProvider("gemini");
+        trace.setModel(geminiModel());
 
         long startTime = System.currentTimeMillis();
 
         try {
             String apiKey = getApiKey(); // Use user's key or fallback
 
-            // Build Gemini request body
-            JsonObject requestBody = new JsonObject();
-            JsonArray contents = new JsonArray();
-            JsonObject content = new JsonObject();
-            JsonArray parts = new JsonArray();
-            JsonObject part = new JsonObject();
-            part.addProperty("text", prompt);
-            parts.add(part);
-            content.add("parts", parts);
-            contents.add(content);
-            requestBody.add("contents", contents);
-
             // Make HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(geminiApiUrl))
-                    .header("Content-Type", "application/json")
-                    .header("X-goog-api-key", apiKey)
-                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = llmProviderClient.generateGemini("query", apiKey, prompt);
 
             // Log the raw response for debugging
             System.out.println("=== GEMINI RAW RESPONSE (NO DB) ===");
@@ -99,33 +99,12 @@ public class AIService {
             System.out.println("===================================");
 
             // Handle different status codes
-            if (response.statusCode() == 429) {
-                String errorMsg = "Rate limit exceeded. Please wait a moment and try again. Gemini API has rate limits on free tier.";
-                trace.setResponse(errorMsg);
-                trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
-                trace.setTokensUsed(0);
-                trace.setCostUsd(0.0);
-                return traceRepository.save(trace);
-            }
-
             if (response.statusCode() != 200) {
-                // Try to parse error message
-                try {
-                    JsonObject errorJson = gson.fromJson(response.body(), JsonObject.class);
-                    if (errorJson.has("error")) {
-                        JsonObject error = errorJson.getAsJsonObject("error");
-                        String message = error.has("message") ? error.get("message").getAsString() : "Unknown error";
-                        trace.setResponse("Gemini API Error: " + message);
-                    } else {
-                        trace.setResponse("Gemini API returned status: " + response.statusCode());
-                    }
-                } catch (Exception e) {
-                    trace.setResponse("Gemini API returned status: " + response.statusCode() + ", Body: " + response.body());
-                }
+                trace.setResponse(geminiErrorMessage(response.statusCode(), response.body()));
                 trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
                 trace.setTokensUsed(0);
                 trace.setCostUsd(0.0);
-                return traceRepository.save(trace);
+                return save(trace);
             }
 
             // Parse response
@@ -136,7 +115,7 @@ public class AIService {
             long endTime = System.currentTimeMillis();
             int latency = (int)(endTime - startTime);
             int tokensUsed = estimateTokens(prompt, aiResponse);
-            double cost = calculateCost(tokensUsed, "gemini-2.0-flash");
+            double cost = calculateCost(tokensUsed, trace.getModel());
 
             // Set trace data
             trace.setResponse(aiResponse);
@@ -152,7 +131,105 @@ public class AIService {
             e.printStackTrace();
         }
 
-        return traceRepository.save(trace);
+        return save(trace);
+    }
+
+    /**
+     * Like executeQuery, but streams the answer: onText receives each chunk of
+     * text as Gemini produces it. The trace is saved once the stream ends,
+     * with the time to the first chunk as well as the total latency.
+     */
+    public Trace executeQueryStream(String prompt, Consumer<String> onText) {
+        Trace trace = new Trace();
+        trace.setPrompt(prompt);
+        trace.setProvider("gemini");
+        trace.setModel(geminiModel());
+
+        long startTime = System.currentTimeMillis();
+        StringBuilder answer = new StringBuilder();
+        int[] reportedTokens = {0};
+
+        try {
+            String apiKey = getApiKey(); // Use user's key or fallback
+
+            LlmProviderClient.StreamResult result = llmProviderClient.streamGemini("query-stream", apiKey, prompt, data -> {
+                JsonObject chunk = gson.fromJson(data, JsonObject.class);
+                if (chunk.has("usageMetadata") && chunk.getAsJsonObject("usageMetadata").has("totalTokenCount")) {
+                    reportedTokens[0] = chunk.getAsJsonObject("usageMetadata").get("totalTokenCount").getAsInt();
+                }
+                String text = extractChunkText(chunk);
+                if (text.isEmpty()) {
+                    return;
+                }
+                if (trace.getTimeToFirstTokenMs() == null) {
+                    trace.setTimeToFirstTokenMs((int)(System.currentTimeMillis() - startTime));
+                }
+                answer.append(text);
+                onText.accept(text);
+            });
+
+            if (result.statusCode() != 200) {
+                trace.setResponse(geminiErrorMessage(result.statusCode(), result.errorBody()));
+                trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
+                trace.setTokensUsed(0);
+                trace.setCostUsd(0.0);
+                return save(trace);
+            }
+
+            // The final chunk carries the real token count; estimate like executeQuery without it
+            int tokensUsed = reportedTokens[0] > 0 ? reportedTokens[0] : estimateTokens(prompt, answer.toString());
+            trace.setResponse(answer.toString());
+            trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
+            trace.setTokensUsed(tokensUsed);
+            trace.setCostUsd(calculateCost(tokensUsed, trace.getModel()));
+
+        } catch (Exception e) {
+            // Keep what was streamed before the failure
+            trace.setResponse(answer.length() > 0 ? answer + "\n\nError: " + e.getMessage() : "Error: " + e.getMessage());
+            trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
+            trace.setTokensUsed(0);
+            trace.setCostUsd(0.0);
+            e.printStackTrace();
+        }
+
+        return save(trace);
+    }
+
+    // Text of all parts of the first candidate in one streamed chunk
+    private String extractChunkText(JsonObject chunk) {
+        if (!chunk.has("candidates") || chunk.getAsJsonArray("candidates").isEmpty()) {
+            return "";
+        }
+        JsonObject candidate = chunk.getAsJsonArray("candidates").get(0).getAsJsonObject();
+        if (!candidate.has("content") || !candidate.getAsJsonObject("content").has("parts")) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (JsonElement part : candidate.getAsJsonObject("content").getAsJsonArray("parts")) {
+            JsonObject partObject = part.getAsJsonObject();
+            if (partObject.has("text")) {
+                text.append(partObject.get("text").getAsString());
+            }
+        }
+        return text.toString();
+    }
+
+    private String geminiErrorMessage(int statusCode, String body) {
+        if (statusCode == 429) {
+            return "Rate limit exceeded. Please wait a moment and try again. Gemini API has rate limits on free tier.";
+        }
+        // Try to parse error message
+        try {
+            JsonObject errorJson = gson.fromJson(body, JsonObject.class);
+            if (errorJson.has("error")) {
+                JsonObject error = errorJson.getAsJsonObject("error");
+                String message = error.has("message") ? error.get("message").getAsString() : "Unknown error";
+                return "Gemini API Error: " + message;
+            }
+            return "Gemini API returned status: " + statusCode;
+        } catch (Exception e) {
+            return "Gemini API returned status: " + statusCode + ", Body: " + body;
+        }
     }
 
     // Execute query with external database
@@ -160,6 +237,7 @@ public class AIService {
         Trace trace = new Trace();
         trace.setPrompt(userPrompt);
         trace.setProvider("gemini");
+        trace.setModel(geminiModel());
 
         long startTime = System.currentTimeMillis();
 
@@ -193,27 +271,8 @@ public class AIService {
                     userPrompt
             );
 
-            // 4. Build Gemini request body
-            JsonObject requestBody = new JsonObject();
-            JsonArray contents = new JsonArray();
-            JsonObject content = new JsonObject();
-            JsonArray parts = new JsonArray();
-            JsonObject part = new JsonObject();
-            part.addProperty("text", enhancedPrompt);
-            parts.add(part);
-            content.add("parts", parts);
-            contents.add(content);
-            requestBody.add("contents", contents);
-
-            // 5. Make HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(geminiApiUrl))
-                    .header("Content-Type", "application/json")
-                    .header("X-goog-api-key", apiKey)
-                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            // 4. Make HTTP request
+            HttpResponse<String> response = llmProviderClient.generateGemini("query-with-db", apiKey, enhancedPrompt);
 
             // Log the raw response for debugging
             System.out.println("=== GEMINI RAW RESPONSE (WITH DB) ===");
@@ -230,7 +289,7 @@ public class AIService {
                 trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
                 trace.setTokensUsed(0);
                 trace.setCostUsd(0.0);
-                return traceRepository.save(trace);
+                return save(trace);
             }
 
             if (response.statusCode() != 200) {
@@ -250,35 +309,33 @@ public class AIService {
                 trace.setLatencyMs((int)(System.currentTimeMillis() - startTime));
                 trace.setTokensUsed(0);
                 trace.setCostUsd(0.0);
-                return traceRepository.save(trace);
+                return save(trace);
             }
 
-            // 6. Parse response
+            // 5. Parse response
             JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
             String aiResponse = extractResponse(responseJson);
 
-            // 7. Calculate metrics
+            // 6. Calculate metrics
             long endTime = System.currentTimeMillis();
             int latency = (int)(endTime - startTime);
             int tokensUsed = estimateTokens(enhancedPrompt, aiResponse);
-            double cost = calculateCost(tokensUsed, "gemini-2.0-flash");
+            double cost = calculateCost(tokensUsed, trace.getModel());
 
-            // 8. Set trace data
+            // 7. Set trace data
             trace.setResponse(aiResponse);
             trace.setLatencyMs(latency);
             trace.setTokensUsed(tokensUsed);
             trace.setCostUsd(cost);
 
-            // 9. Detect hallucinations (only for database queries)
+            // 8. Detect hallucinations (only for database queries)
             try {
                 System.out.println("=== DETECTING HALLUCINATIONS ===");
                 HallucinationDetector.HallucinationResult hallucinationResult =
                         hallucinationDetector.detectHallucinations(aiResponse, dbContext, userPrompt);
 
-                // Store hallucination data as JSON
-                String hallucinationJson = gson.toJson(hallucinationResult);
-                trace.setHallucinationData(hallucinationJson);
-                trace.setConfidenceScore(hallucinationResult.getConfidenceScore());
+                // Kept on the trace as well, so callers need not parse the JSON back
+                trace.setHallucinationResult(hallucinationResult);
 
                 System.out.println("Confidence Score: " + hallucinationResult.getConfidenceScore());
                 System.out.println("Has Hallucinations: " + hallucinationResult.isHasHallucinations());
@@ -298,7 +355,7 @@ public class AIService {
             e.printStackTrace();
         }
 
-        return traceRepository.save(trace);
+        return save(trace);
     }
 
     private String extractResponse(JsonObject responseJson) {
@@ -386,10 +443,19 @@ public class AIService {
         return totalChars / 4;
     }
 
-    // In AIService.java - make sure calculateCost is correct
+    // Priced from the model_prices table (seeded by DataSeeder)
     private double calculateCost(int tokens, String model) {
-        // Gemini 2.0 Flash pricing: $0.1875 per 1M tokens
-        double costPer1M = 0.1875;
-        return (tokens / 1_000_000.0) * costPer1M;
+        Double cost = modelPriceService.costOf("gemini", model, tokens, LocalDateTime.now());
+        if (cost == null) {
+            System.err.println("⚠️ No price for gemini/" + model + " - recording the cost as 0");
+            return 0.0;
+        }
+        return cost;
+    }
+
+    // The model is part of the configured endpoint, e.g. .../models/gemini-2.0-flash:generateContent
+    private String geminiModel() {
+        Matcher matcher = MODEL_IN_URL.matcher(geminiApiUrl);
+        return matcher.find() ? matcher.group(1) : null;
     }
 }
\ No newline at end of file
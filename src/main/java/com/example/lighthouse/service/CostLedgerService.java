@@ -0,0 +1,230 @@
+// src/main/java/com/example/lighthouse/service/CostLedgerService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.CostLedgerEntry;
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.repository.CostLedgerRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Daily cost and token ledger per project, provider and model. Traces are
+ * added to in-memory deltas as they are recorded and upserted into
+ * cost_ledger every few seconds, so cost breakdowns read ledger rows instead
+ * of grouping the traces table.
+ */
+@Service
+@DependsOn("tracePartitionManager") // backfill reads the final traces table
+public class CostLedgerService {
+    public static final String UNKNOWN_MODEL = "unknown";
+
+    @Autowired
+    private CostLedgerRepository costLedgerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<LedgerKey, Accumulator> pending = new ConcurrentHashMap<>();
+
+    private record LedgerKey(String projectId, String provider, String model, LocalDate day) {}
+
+    private record BreakdownKey(LocalDate day, String provider, String model) {}
+
+    private static final class Accumulator {
+        long traceCount;
+        long tokensUsed;
+        double costUsd;
+
+        void add(long count, long tokens, double cost) {
+            traceCount += count;
+            tokensUsed += tokens;
+            costUsd += cost;
+        }
+
+        void merge(Accumulator other) {
+            add(other.traceCount, other.tokensUsed, other.costUsd);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            if (costLedgerRepository.count() == 0) {
+                int rows = costLedgerRepository.backfill();
+                if (rows > 0) {
+                    System.out.println("✅ Backfilled " + rows + " cost ledger rows from existing traces");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Cost ledger backfill failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Count a trace that has been committed.
+     */
+    public void record(Trace trace) {
+        record(
+                trace.getProject() != null ? trace.getProject().getId() : null,
+                trace.getProvider(),
+                trace.getModel(),
+                trace.getCreatedAt() != null ? trace.getCreatedAt() : LocalDateTime.now(),
+                trace.getCostUsd() != null ? trace.getCostUsd() : 0.0,
+                trace.getTokensUsed() != null ? trace.getTokensUsed() : 0
+        );
+    }
+
+    public void record(String projectId, String provider, String model, LocalDateTime createdAt,
+                       double costUsd, long tokensUsed) {
+        LedgerKey key = new LedgerKey(
+                projectId != null ? projectId : "",
+                provider != null ? provider : "unknown",
+                model != null && !model.isBlank() ? model : UNKNOWN_MODEL,
+                createdAt.toLocalDate());
+        // compute() keeps the update atomic with the flusher's remove()
+        pending.compute(key, (k, accumulator) -> {
+            Accumulator a = accumulator != null ? accumulator : new Accumulator();
+            a.add(1, tokensUsed, costUsd);
+            return a;
+        });
+    }
+
+    /**
+     * Cost and tokens over the days [from, to) for one project, or all
+     * projects when projectId is null: totals, per provider, per model and
+     * per day. Deltas not flushed yet are included.
+     */
+    public Map<String, Object> getBreakdown(String projectId, LocalDate from, LocalDate to) {
+        TreeMap<BreakdownKey, Accumulator> rows = new TreeMap<>(
+                (a, b) -> {
+                    int c = a.day().compareTo(b.day());
+                    if (c == 0) c = a.provider().compareTo(b.provider());
+                    if (c == 0) c = a.model().compareTo(b.model());
+                    return c;
+                });
+
+        List<CostLedgerRepository.CostBreakdown> stored = projectId != null
+                ? costLedgerRepository.getBreakdownByProjectId(projectId, from, to)
+                : costLedgerRepository.getBreakdown(from, to);
+        for (CostLedgerRepository.CostBreakdown row : stored) {
+            rows.computeIfAbsent(new BreakdownKey(row.getDay(), row.getProvider(), row.getModel()), k -> new Accumulator())
+                    .add(row.getTraceCount(), row.getTokensUsed(), row.getCostUsd());
+        }
+        for (LedgerKey key : pending.keySet()) {
+            if ((projectId == null || projectId.equals(key.projectId()))
+                    && !key.day().isBefore(from) && key.day().isBefore(to)) {
+                Accumulator row = rows.computeIfAbsent(new BreakdownKey(key.day(), key.provider(), key.model()), k -> new Accumulator());
+                // Read under the same per-key lock the writers use
+                pending.computeIfPresent(key, (k, accumulator) -> {
+                    row.merge(accumulator);
+                    return accumulator;
+                });
+            }
+        }
+
+        Accumulator totals = new Accumulator();
+        Map<String, Accumulator> providers = new TreeMap<>();
+        Map<String, Accumulator> models = new TreeMap<>();
+        List<Map<String, Object>> days = new ArrayList<>(rows.size());
+        rows.forEach((key, row) -> {
+            totals.merge(row);
+            providers.computeIfAbsent(key.provider(), k -> new Accumulator()).merge(row);
+            models.computeIfAbsent(key.provider() + "/" + key.model(), k -> new Accumulator()).merge(row);
+            Map<String, Object> day = summarize(row);
+            day.put("day", key.day());
+            day.put("provider", key.provider());
+            day.put("model", key.model());
+            days.add(day);
+        });
+
+        List<Map<String, Object>> byProvider = new ArrayList<>();
+        providers.forEach((provider, row) -> {
+            Map<String, Object> entry = summarize(row);
+            entry.put("provider", provider);
+            byProvider.add(entry);
+        });
+        List<Map<String, Object>> byModel = new ArrayList<>();
+        models.forEach((name, row) -> {
+            Map<String, Object> entry = summarize(row);
+            int slash = name.indexOf('/');
+            entry.put("provider", name.substring(0, slash));
+            entry.put("model", name.substring(slash + 1));
+            byModel.add(entry);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("projectId", projectId);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("totals", summarize(totals));
+        result.put("providers", byProvider);
+        result.put("models", byModel);
+        result.put("days", days);
+        return result;
+    }
+
+    private static Map<String, Object> summarize(Accumulator row) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", row.traceCount);
+        result.put("tokens", row.tokensUsed);
+        result.put("cost", row.costUsd);
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${lighthouse.costs.flush-interval-ms:5000}")
+    public void flush() {
+        Map<LedgerKey, Accumulator> drained = new HashMap<>();
+        for (LedgerKey key : pending.keySet()) {
+            Accumulator accumulator = pending.remove(key);
+            if (accumulator != null) {
+                drained.put(key, accumulator);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<CostLedgerEntry> deltas = new ArrayList<>(drained.size());
+        drained.forEach((key, accumulator) -> {
+            CostLedgerEntry delta = new CostLedgerEntry();
+            delta.setProjectId(key.projectId());
+            delta.setProvider(key.provider());
+            delta.setModel(key.model());
+            delta.setDay(key.day());
+            delta.setTraceCount(accumulator.traceCount);
+            delta.setTokensUsed(accumulator.tokensUsed);
+            delta.setCostUsd(accumulator.costUsd);
+            deltas.add(delta);
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> costLedgerRepository.addAll(deltas));
+        } catch (Exception e) {
+            // Put the deltas back and try again on the next run
+            drained.forEach((key, accumulator) -> pending.merge(key, accumulator, (current, failed) -> {
+                current.merge(failed);
+                return current;
+            }));
+            System.err.println("❌ Failed to flush cost ledger: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,202 @@
+// src/main/java/com/example/lighthouse/service/HallucinationCheckService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.DatabaseConnection;
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.repository.DatabaseConnectionRepository;
+import com.example.lighthouse.repository.TraceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs hallucination detection for SDK traces on a dedicated worker pool, after
+ * the trace has been saved. The trace moves from PENDING to SCORED (or FAILED)
+ * and SDK clients poll for the result.
+ */
+@Service
+public class HallucinationCheckService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SCORED = "SCORED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Autowired
+    private TraceRepository traceRepository;
+
+    @Autowired
+    private DatabaseConnectionRepository dbConnectionRepository;
+
+    @Autowired
+    private ExternalDatabaseService externalDbService;
+
+    @Autowired
+    private HallucinationDetector hallucinationDetector;
+
+    @Autowired
+    private TraceRollupService traceRollupService;
+
+    @Autowired
+    private TraceStreamHub traceStreamHub;
+
+    @Value("${lighthouse.hallucination.workers:4}")
+    private int workers;
+
+    @Value("${lighthouse.hallucination.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${lighthouse.hallucination.stale-after-seconds:120}")
+    private long staleAfterSeconds;
+
+    // How far back the sweeper looks for traces left PENDING
+    @Value("${lighthouse.hallucination.sweep-lookback-hours:24}")
+    private long sweepLookbackHours;
+
+    private ThreadPoolExecutor executor;
+
+    // Traces queued or running, so the sweeper never schedules a trace twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                workers,
+                workers,
+                60L,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "hallucination-check-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Mark a trace for a background check against the given connection.
+     * Call before the trace is persisted.
+     */
+    public void markPending(Trace trace, String dbConnectionId) {
+        trace.setDatabaseConnectionId(dbConnectionId);
+        trace.setHallucinationStatus(STATUS_PENDING);
+    }
+
+    /**
+     * Schedule checks for every pending trace in the list. Call after the
+     * traces are committed.
+     */
+    public void submitPending(List<Trace> traces) {
+        for (Trace trace : traces) {
+            if (STATUS_PENDING.equals(trace.getHallucinationStatus())) {
+                submit(trace.getId());
+            }
+        }
+    }
+
+    /**
+     * Schedule a check for a saved trace. When the pool is saturated the trace
+     * stays PENDING and the sweeper picks it up later.
+     */
+    public void submit(String traceId) {
+        if (!inFlight.add(traceId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    runCheck(traceId);
+                } finally {
+                    inFlight.remove(traceId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(traceId);
+            System.out.println("⚠️ Hallucination check queue full - trace " + traceId + " left pending");
+        }
+    }
+
+    /**
+     * Re-submit traces left PENDING by a full queue or a restart.
+     */
+    @Scheduled(fixedDelayString = "${lighthouse.hallucination.sweep-interval-ms:60000}")
+    public void sweepPending() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        List<Trace> stale = traceRepository.findTop100ByHallucinationStatusAndCreatedAtBetweenOrderByCreatedAtAsc(
+                STATUS_PENDING, cutoff.minusHours(sweepLookbackHours), cutoff);
+        for (Trace trace : stale) {
+            submit(trace.getId());
+        }
+    }
+
+    private void runCheck(String traceId) {
+        Optional<Trace> traceOpt = traceRepository.findWithBodiesById(traceId);
+        if (traceOpt.isEmpty()) {
+            return;
+        }
+        Trace trace = traceOpt.get();
+
+        try {
+            Optional<DatabaseConnection> dbConfigOpt = dbConnectionRepository.findById(trace.getDatabaseConnectionId());
+            if (dbConfigOpt.isEmpty()) {
+                System.out.println("⚠️ Database connection not found: " + trace.getDatabaseConnectionId() + " - Skipping hallucination detection");
+                traceRepository.updateHallucinationStatus(traceId, trace.getCreatedAt(), STATUS_FAILED);
+                traceStreamHub.publishScore(trace, trace.getConfidenceScore(), STATUS_FAILED);
+                return;
+            }
+
+            // Search database for context based on the prompt
+            String dbContext = externalDbService.searchDatabase(dbConfigOpt.get(), trace.getPrompt());
+
+            HallucinationDetector.HallucinationResult result =
+                    hallucinationDetector.detectHallucinations(
+                            trace.getResponse(),
+                            dbContext,
+                            trace.getPrompt()
+                    );
+
+            int updated = traceRepository.updateHallucinationResult(
+                    traceId,
+                    trace.getCreatedAt(),
+                    result.toJson(),
+                    result.getConfidenceScore(),
+                    result.getUnsupportedClaimCount(),
+                    result.getSupportedClaimCount(),
+                    result.isHasHallucinations(),
+                    STATUS_SCORED
+            );
+            if (updated > 0) {
+                traceRollupService.recordScore(trace, trace.getConfidenceScore(), result.getConfidenceScore());
+                traceStreamHub.publishScore(trace, result.getConfidenceScore(), STATUS_SCORED);
+            }
+
+            System.out.println("✅ Hallucination detection completed for SDK trace " + traceId);
+            System.out.println("   Confidence Score: " + result.getConfidenceScore());
+        } catch (Exception e) {
+            System.err.println("⚠️ Error during hallucination detection for trace " + traceId + ": " + e.getMessage());
+            e.printStackTrace();
+            traceRepository.updateHallucinationStatus(traceId, trace.getCreatedAt(), STATUS_FAILED);
+            traceStreamHub.publishScore(trace, trace.getConfidenceScore(), STATUS_FAILED);
+        }
+    }
+}
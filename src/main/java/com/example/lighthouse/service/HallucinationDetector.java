@@ -10,9 +10,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.*;
 import java.util.regex.Pattern;
@@ -24,9 +21,6 @@ public class HallucinationDetector {
     @Value("${gemini.api.key}")
     private String defaultGeminiApiKey;
 
-    @Value("${gemini.api.url}")
-    private String geminiApiUrl;
-
     @Autowired(required = false)
     private ApiCredentialRepository credentialRepository;
 
@@ -36,10 +30,14 @@ public class HallucinationDetector {
     @Autowired
     private TraceRepository traceRepository;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Autowired
+    private LlmProviderClient llmProviderClient;
+
     private final Gson gson = new Gson();
 
     public static class HallucinationResult {
+        private static final Gson GSON = new Gson();
+
         private double confidenceScore; // 0-100, higher = more confident
         private List<String> unsupportedClaims;
         private List<String> supportedClaims;
@@ -64,6 +62,12 @@ public class HallucinationDetector {
         public void setAiReview(String aiReview) { this.aiReview = aiReview; }
         public boolean isHasHallucinations() { return hasHallucinations; }
         public void setHasHallucinations(boolean hasHallucinations) { this.hasHallucinations = hasHallucinations; }
+
+        public int getUnsupportedClaimCount() { return unsupportedClaims != null ? unsupportedClaims.size() : 0; }
+        public int getSupportedClaimCount() { return supportedClaims != null ? supportedClaims.size() : 0; }
+
+        // Stored in traces.hallucination_data
+        public String toJson() { return GSON.toJson(this); }
     }
 
     /**
@@ -258,25 +262,7 @@ public class HallucinationDetector {
                     result.getSupportedClaims().isEmpty() ? "None" : String.join("\n- ", result.getSupportedClaims())
             );
 
-            JsonObject requestBody = new JsonObject();
-            JsonArray contents = new JsonArray();
-            JsonObject content = new JsonObject();
-            JsonArray parts = new JsonArray();
-            JsonObject part = new JsonObject();
-            part.addProperty("text", reviewPrompt);
-            parts.add(part);
-            content.add("parts", parts);
-            contents.add(content);
-            requestBody.add("contents", contents);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(geminiApiUrl))
-                    .header("Content-Type", "application/json")
-                    .header("X-goog-api-key", apiKey)
-                    .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(requestBody)))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = llmProviderClient.generateGemini("review", apiKey, reviewPrompt);
             if (response.statusCode() == 200) {
                 JsonObject responseJson = gson.fromJson(response.body(), JsonObject.class);
                 return extractReviewFromResponse(responseJson);
@@ -0,0 +1,225 @@
+// src/main/java/com/example/lighthouse/service/IngestIdempotencyService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.repository.IngestIdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Deduplicates SDK retries within a time window. Recently seen keys are held in
+ * a bounded in-memory map so most retries never reach the database; the unique
+ * constraint on ingest_idempotency_keys is what actually guarantees a key maps
+ * to one trace, across restarts and instances.
+ *
+ * Keys reserved for traces that are not written yet exist only in memory, so
+ * a full map never evicts them: it drops expired and already stored keys, and
+ * refuses new reservations if that is not enough.
+ */
+@Service
+public class IngestIdempotencyService {
+    public static final int MAX_KEY_LENGTH = 255;
+    // Owner recorded for keys of traces dropped by sampling; never a real trace ID
+    public static final String SAMPLED_OUT = "sampled-out";
+
+    @Autowired
+    private IngestIdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${lighthouse.sdk.idempotency.window-seconds:86400}")
+    private long windowSeconds;
+
+    @Value("${lighthouse.sdk.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder duplicates = new LongAdder();
+
+    // reserved: the trace is not in the database yet, so this entry is all that deduplicates it
+    private record Entry(String traceId, long expiresAtNanos, boolean reserved) {}
+
+    /**
+     * Thrown when a key cannot be reserved because the map is full of live
+     * reservations. The caller should ask the client to retry later.
+     */
+    public static class ReservationsFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ReservationsFullException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Trace already recorded under this key according to the in-memory window,
+     * or null. Counts a hit as a duplicate.
+     */
+    public String findCached(String projectId, String key) {
+        Entry entry = entries.get(cacheKey(projectId, key));
+        if (entry != null && System.nanoTime() - entry.expiresAtNanos() < 0) {
+            duplicates.increment();
+            return entry.traceId();
+        }
+        return null;
+    }
+
+    /**
+     * Reserve a key for a trace that will be persisted later (async ingest).
+     * Returns the trace that already owns the key, or null if the reservation
+     * went to the given trace. Falls back to the database on a memory miss so
+     * retries after a restart still resolve to the original trace. Throws
+     * ReservationsFullException when there is no room for the reservation.
+     */
+    public String reserve(String projectId, String key, String traceId) {
+        String existing = findCached(projectId, key);
+        if (existing != null) {
+            return existing;
+        }
+
+        Optional<String> stored = idempotencyKeyRepository.findTraceId(projectId, key);
+        if (stored.isPresent()) {
+            duplicates.increment();
+            remember(projectId, key, stored.get());
+            return stored.get();
+        }
+        return reserveInMemory(projectId, key, traceId);
+    }
+
+    private String reserveInMemory(String projectId, String key, String traceId) {
+        long now = System.nanoTime();
+        if (!makeRoom(now)) {
+            throw new ReservationsFullException(entries.size() + " idempotency keys are reserved for unwritten traces");
+        }
+        Entry mine = new Entry(traceId, now + TimeUnit.SECONDS.toNanos(windowSeconds), true);
+        Entry winner = entries.merge(cacheKey(projectId, key), mine,
+                (current, candidate) -> now - current.expiresAtNanos() < 0 ? current : candidate);
+        if (winner != mine) {
+            duplicates.increment();
+            return winner.traceId();
+        }
+        return null;
+    }
+
+    /**
+     * Claim the key of a trace that sampling dropped, so retries of it are not
+     * counted again. Returns false when the key was already taken, by an
+     * earlier attempt or by a stored trace.
+     */
+    public boolean claimSampledOut(String projectId, String key) {
+        if (findCached(projectId, key) != null) {
+            return false;
+        }
+        try {
+            if (!idempotencyKeyRepository.claimKey(projectId, key, SAMPLED_OUT)) {
+                duplicates.increment();
+                remember(projectId, key, idempotencyKeyRepository.findTraceId(projectId, key).orElse(SAMPLED_OUT));
+                return false;
+            }
+            remember(projectId, key, SAMPLED_OUT);
+            return true;
+        } catch (DataAccessException e) {
+            // Database down: the in-memory window still catches retries to this instance
+            try {
+                return reserveInMemory(projectId, key, SAMPLED_OUT) == null;
+            } catch (ReservationsFullException full) {
+                return true; // count it rather than fail the request over a sampling counter
+            }
+        }
+    }
+
+    /**
+     * Drop a reservation whose trace will never be persisted, so a retry can
+     * go through. Not for traces that are still being retried.
+     */
+    public void release(String projectId, String key, String traceId) {
+        entries.computeIfPresent(cacheKey(projectId, key),
+                (k, entry) -> entry.traceId().equals(traceId) ? null : entry);
+    }
+
+    /**
+     * Cache the owner of a key that the database also knows about (or will,
+     * for spooled traces). Skipped when the map is full: the unique
+     * constraint still catches the retry.
+     */
+    public void remember(String projectId, String key, String traceId) {
+        long now = System.nanoTime();
+        if (makeRoom(now)) {
+            entries.put(cacheKey(projectId, key),
+                    new Entry(traceId, now + TimeUnit.SECONDS.toNanos(windowSeconds), false));
+        }
+    }
+
+    /**
+     * Claim the keys of the given traces in the database. Returns trace ID to
+     * owning trace ID for every trace that turned out to be a duplicate. Call
+     * inside the transaction that inserts the traces.
+     */
+    public Map<String, String> claimKeys(List<Trace> keyedTraces) {
+        if (keyedTraces.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> owners = idempotencyKeyRepository.claimKeys(keyedTraces);
+        duplicates.add(owners.size());
+        return owners;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("windowSeconds", windowSeconds);
+        stats.put("cachedKeys", entries.size());
+        stats.put("duplicates", duplicates.sum());
+        return stats;
+    }
+
+    /**
+     * Forget keys older than the window so the table does not grow forever.
+     */
+    @Scheduled(fixedDelayString = "${lighthouse.sdk.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+
+        int deleted = idempotencyKeyRepository.deleteOlderThan(LocalDateTime.now().minusSeconds(windowSeconds));
+        if (deleted > 0) {
+            System.out.println("🧹 Purged " + deleted + " expired idempotency keys");
+        }
+    }
+
+    /**
+     * Evict expired keys, then stored ones, until there is room for one more.
+     * Reservations are never evicted. Returns false if the map is still full.
+     */
+    private boolean makeRoom(long now) {
+        if (entries.size() < maxEntries) {
+            return true;
+        }
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+
+        // The database still catches anything dropped here
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<String, Entry>> stored = entries.entrySet().iterator();
+        while (entries.size() > target && stored.hasNext()) {
+            if (!stored.next().getValue().reserved()) {
+                stored.remove();
+            }
+        }
+        return entries.size() < maxEntries;
+    }
+
+    private static String cacheKey(String projectId, String key) {
+        return projectId + "\n" + key;
+    }
+}
@@ -0,0 +1,130 @@
+// src/main/java/com/example/lighthouse/service/IngestRateLimiter.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-project token buckets for SDK ingestion. Each bucket is a single
+ * AtomicLong holding the time at which it will be full again, updated with a
+ * compare-and-set loop, so projects never contend on a shared lock.
+ */
+@Service
+public class IngestRateLimiter {
+
+    @Value("${lighthouse.sdk.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${lighthouse.sdk.rate-limit.traces-per-second:500}")
+    private double defaultTracesPerSecond;
+
+    @Value("${lighthouse.sdk.rate-limit.burst:1000}")
+    private int defaultBurst;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Take one token per trace. Returns 0 when allowed, otherwise how many
+     * nanoseconds to wait before the same request would fit.
+     */
+    public long tryAcquire(Project project, int traces) {
+        if (!enabled) {
+            return 0;
+        }
+        return bucketFor(project).tryAcquire(traces, System.nanoTime());
+    }
+
+    /**
+     * Largest number of traces a single request may carry for this project.
+     */
+    public int getBurst(Project project) {
+        return enabled ? bucketFor(project).burst : Integer.MAX_VALUE;
+    }
+
+    public Map<String, Object> getUsage(Project project) {
+        Map<String, Object> usage = new HashMap<>();
+        usage.put("enabled", enabled);
+        usage.put("projectId", project.getId());
+
+        TokenBucket bucket = bucketFor(project);
+        usage.put("tracesPerSecond", bucket.tracesPerSecond);
+        usage.put("burst", bucket.burst);
+        usage.put("availableTokens", bucket.available(System.nanoTime()));
+        usage.put("allowed", bucket.allowed.sum());
+        usage.put("rejected", bucket.rejected.sum());
+        return usage;
+    }
+
+    public void remove(String projectId) {
+        buckets.remove(projectId);
+    }
+
+    private TokenBucket bucketFor(Project project) {
+        double rate = project.getIngestRateLimit() != null && project.getIngestRateLimit() > 0
+                ? project.getIngestRateLimit() : defaultTracesPerSecond;
+        int burst = project.getIngestBurst() != null && project.getIngestBurst() > 0
+                ? project.getIngestBurst() : defaultBurst;
+
+        TokenBucket bucket = buckets.get(project.getId());
+        if (bucket != null && bucket.tracesPerSecond == rate && bucket.burst == burst) {
+            return bucket;
+        }
+        // First request, or the project's limits changed
+        return buckets.compute(project.getId(), (id, existing) ->
+                existing != null && existing.tracesPerSecond == rate && existing.burst == burst
+                        ? existing : new TokenBucket(rate, burst));
+    }
+
+    /**
+     * Token bucket kept as a "theoretical arrival time" (GCRA): each token moves
+     * the time forward by one emission interval, and a request fits while that
+     * time stays within one burst of now.
+     */
+    private static final class TokenBucket {
+        final double tracesPerSecond;
+        final int burst;
+        final long intervalNanos;
+        final long burstNanos;
+        final AtomicLong fullAt;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        TokenBucket(double tracesPerSecond, int burst) {
+            this.tracesPerSecond = tracesPerSecond;
+            this.burst = burst;
+            this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / tracesPerSecond));
+            this.burstNanos = intervalNanos * burst;
+            this.fullAt = new AtomicLong(System.nanoTime());
+        }
+
+        long tryAcquire(int permits, long now) {
+            long cost = intervalNanos * permits;
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + cost;
+                long wait = next - now - burstNanos;
+                if (wait > 0) {
+                    rejected.add(permits);
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    allowed.add(permits);
+                    return 0;
+                }
+            }
+        }
+
+        long available(long now) {
+            long used = Math.max(fullAt.get(), now) - now;
+            return Math.max(0L, (burstNanos - used) / intervalNanos);
+        }
+    }
+}
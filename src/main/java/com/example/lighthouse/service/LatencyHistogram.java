@@ -0,0 +1,164 @@
+// src/main/java/com/example/lighthouse/service/LatencyHistogram.java
+package com.example.lighthouse.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Sparse log-linear histogram of latencies in milliseconds, in the style of
+ * HdrHistogram. Values below 64 ms get their own bucket; above that each power
+ * of two is split into 32 buckets, so a reported percentile is within about
+ * 1.5% of the true value. Only non-empty buckets are stored, which keeps a
+ * typical histogram to a few hundred bytes, and two histograms merge by
+ * adding bucket counts.
+ *
+ * Not thread-safe; callers hold their own lock.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int FORMAT_VERSION = 1;
+
+    // Bucket indexes in ascending order, with their counts
+    private int[] indexes = new int[8];
+    private long[] counts = new long[8];
+    private int size;
+    private long totalCount;
+
+    public void record(int latencyMs) {
+        record(latencyMs, 1);
+    }
+
+    public void record(int latencyMs, long count) {
+        add(indexOf(Math.max(0, latencyMs)), count);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.indexes[i], other.counts[i]);
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+
+    /**
+     * Latency at the given percentile (0-100), or null when nothing was recorded.
+     */
+    public Integer percentile(double percentile) {
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpoint(indexes[i]);
+            }
+        }
+        return midpoint(indexes[size - 1]);
+    }
+
+    /**
+     * Version byte followed by varint (index gap, count) pairs.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + size * 3);
+        out.write(FORMAT_VERSION);
+        writeVarint(out, size);
+        int previous = 0;
+        for (int i = 0; i < size; i++) {
+            writeVarint(out, indexes[i] - previous);
+            writeVarint(out, counts[i]);
+            previous = indexes[i];
+        }
+        return out.toByteArray();
+    }
+
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length == 0 || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported latency histogram format");
+        }
+        LatencyHistogram histogram = new LatencyHistogram();
+        int[] pos = {1};
+        long entries = readVarint(bytes, pos);
+        int index = 0;
+        for (long i = 0; i < entries; i++) {
+            index += (int) readVarint(bytes, pos);
+            histogram.add(index, readVarint(bytes, pos));
+        }
+        return histogram;
+    }
+
+    static int indexOf(int value) {
+        if (value < LINEAR_LIMIT) {
+            return value;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int subBucket = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static int midpoint(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        int lowest = (SUB_BUCKETS + subBucket) << shift;
+        return lowest + ((1 << shift) - 1) / 2;
+    }
+
+    private void add(int index, long count) {
+        if (count <= 0) {
+            return;
+        }
+        totalCount += count;
+        int pos = Arrays.binarySearch(indexes, 0, size, index);
+        if (pos >= 0) {
+            counts[pos] += count;
+            return;
+        }
+        pos = -pos - 1;
+        if (size == indexes.length) {
+            indexes = Arrays.copyOf(indexes, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(indexes, pos, indexes, pos + 1, size - pos);
+        System.arraycopy(counts, pos, counts, pos + 1, size - pos);
+        indexes[pos] = index;
+        counts[pos] = count;
+        size++;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] pos) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (pos[0] >= bytes.length) {
+                throw new IllegalArgumentException("Truncated latency histogram");
+            }
+            byte b = bytes[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed latency histogram");
+    }
+}
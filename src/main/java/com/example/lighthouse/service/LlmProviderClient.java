@@ -0,0 +1,249 @@
+// src/main/java/com/example/lighthouse/service/LlmProviderClient.java
+package com.example.lighthouse.service;
+
+import com.google.gson.Gson;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The one HTTP client for outbound LLM calls. A single java.net.http client
+ * keeps connections to the provider warm (pooled, HTTP/2 when the server
+ * supports it), every call has a connect and a read timeout so a stalled
+ * provider cannot hold a request thread, and call latency is recorded per
+ * operation.
+ */
+@Service
+public class LlmProviderClient {
+    private static final Gson GSON = new Gson();
+
+    @Value("${gemini.api.url}")
+    private String geminiApiUrl;
+
+    // Covers the whole call, headers and body
+    private final Duration readTimeout;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    // Closes streamed bodies that run past the read timeout
+    private final ScheduledExecutorService deadlines =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("llm-deadline").factory());
+
+    private final ConcurrentHashMap<String, CallStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Outcome of a streamed call: errorBody is set when the status is not 200.
+     */
+    public record StreamResult(int statusCode, String errorBody) {}
+
+    private static final class CallStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+    }
+
+    public LlmProviderClient(@Value("${lighthouse.llm.connect-timeout-ms:5000}") long connectTimeoutMs,
+                             @Value("${lighthouse.llm.read-timeout-ms:60000}") long readTimeoutMs) {
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    @PreDestroy
+    public void stop() {
+        httpClient.shutdownNow();
+        executor.shutdownNow();
+        deadlines.shutdownNow();
+    }
+
+    /**
+     * Body of a single-turn Gemini generateContent request. Written directly
+     * rather than as a Gson tree; only the prompt needs escaping.
+     */
+    public static String geminiRequestBody(String prompt) {
+        return "{\"contents\":[{\"parts\":[{\"text\":" + GSON.toJson(prompt) + "}]}]}";
+    }
+
+    /**
+     * Send a prompt to the configured Gemini model. operation names the
+     * caller in the timing stats, e.g. "query" or "review". Non-2xx responses
+     * are returned as they are; a timeout is thrown as HttpTimeoutException.
+     */
+    public HttpResponse<String> generateGemini(String operation, String apiKey, String prompt)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(geminiApiUrl))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .header("X-goog-api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(geminiRequestBody(prompt)))
+                .build();
+        return send(operation, request);
+    }
+
+    /**
+     * Stream a Gemini response (streamGenerateContent as Server-Sent Events).
+     * onChunk receives each event's JSON as it arrives, on the calling thread.
+     * The read timeout bounds the whole stream.
+     */
+    public StreamResult streamGemini(String operation, String apiKey, String prompt, Consumer<String> onChunk)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(geminiStreamUrl()))
+                .timeout(readTimeout)
+                .header("Content-Type", "application/json")
+                .header("X-goog-api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(geminiRequestBody(prompt)))
+                .build();
+
+        CallStats callStats = stats.computeIfAbsent(operation, k -> new CallStats());
+        callStats.calls.increment();
+        long start = System.nanoTime();
+        AtomicBoolean expired = new AtomicBoolean();
+        ScheduledFuture<?> deadline = null;
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            // Closed by the deadline task too, so it is not the try-with-resources variable itself
+            InputStream stream = response.body();
+            try (InputStream body = stream) {
+                // A blocked read fails once the body is closed
+                deadline = deadlines.schedule(() -> {
+                    expired.set(true);
+                    try {
+                        stream.close();
+                    } catch (IOException ignored) {
+                    }
+                }, readTimeout.toNanos() - (System.nanoTime() - start), TimeUnit.NANOSECONDS);
+
+                if (response.statusCode() != 200) {
+                    callStats.failures.increment();
+                    return new StreamResult(response.statusCode(), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+                BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // Gemini sends each chunk as a single "data:" line
+                    if (line.startsWith("data:")) {
+                        onChunk.accept(line.substring(5).trim());
+                    }
+                }
+                if (expired.get()) {
+                    // Ended by the deadline, not by the server
+                    throw new HttpTimeoutException(operation + " stream cut off");
+                }
+                return new StreamResult(200, null);
+            }
+        } catch (IOException e) {
+            if (expired.get() || e instanceof HttpTimeoutException) {
+                callStats.timeouts.increment();
+                throw new HttpTimeoutException(operation + " call timed out after " + readTimeout.toMillis() + " ms");
+            }
+            callStats.failures.increment();
+            throw e;
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            int elapsedMs = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            synchronized (callStats.latency) {
+                callStats.latency.record(elapsedMs);
+            }
+        }
+    }
+
+    // .../models/gemini-2.0-flash:generateContent -> ...:streamGenerateContent?alt=sse
+    private String geminiStreamUrl() {
+        return geminiApiUrl.replace(":generateContent", ":streamGenerateContent") + "?alt=sse";
+    }
+
+    public HttpResponse<String> send(String operation, HttpRequest request) throws IOException, InterruptedException {
+        CallStats callStats = stats.computeIfAbsent(operation, k -> new CallStats());
+        callStats.calls.increment();
+        long start = System.nanoTime();
+        // The request timeout stops at the response headers, so the body is bounded here
+        CompletableFuture<HttpResponse<String>> call = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        try {
+            HttpResponse<String> response = call.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (response.statusCode() >= 400) {
+                callStats.failures.increment();
+            }
+            return response;
+        } catch (TimeoutException e) {
+            call.cancel(true);
+            callStats.timeouts.increment();
+            throw new HttpTimeoutException(operation + " call timed out after " + readTimeout.toMillis() + " ms");
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof HttpTimeoutException) {
+                callStats.timeouts.increment();
+            } else {
+                callStats.failures.increment();
+            }
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException(operation + " call failed: " + cause.getMessage(), cause);
+        } finally {
+            int elapsedMs = (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            synchronized (callStats.latency) {
+                callStats.latency.record(elapsedMs);
+            }
+        }
+    }
+
+    /**
+     * Calls, failures (errors and HTTP 4xx/5xx), timeouts and latency
+     * percentiles per operation since startup.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new TreeMap<>();
+        stats.forEach((operation, callStats) -> {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("calls", callStats.calls.sum());
+            entry.put("failures", callStats.failures.sum());
+            entry.put("timeouts", callStats.timeouts.sum());
+            synchronized (callStats.latency) {
+                entry.put("p50", callStats.latency.percentile(50));
+                entry.put("p90", callStats.latency.percentile(90));
+                entry.put("p99", callStats.latency.percentile(99));
+            }
+            result.put(operation, entry);
+        });
+        return result;
+    }
+}
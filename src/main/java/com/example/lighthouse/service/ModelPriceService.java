@@ -0,0 +1,108 @@
+// src/main/java/com/example/lighthouse/service/ModelPriceService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.ModelPrice;
+import com.example.lighthouse.repository.ModelPriceRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Versioned model prices, cached in memory so costs can be computed on the
+ * ingest path without a query. The cache is reloaded after every change and
+ * periodically, to pick up prices added by other instances.
+ */
+@Service
+public class ModelPriceService {
+
+    @Autowired
+    private ModelPriceRepository modelPriceRepository;
+
+    // provider/model -> versions, oldest first
+    private volatile Map<String, List<ModelPrice>> prices = Map.of();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${lighthouse.costs.price-refresh-ms:60000}", initialDelayString = "${lighthouse.costs.price-refresh-ms:60000}")
+    public void reload() {
+        try {
+            Map<String, List<ModelPrice>> loaded = new HashMap<>();
+            for (ModelPrice price : modelPriceRepository.findAllByOrderByProviderAscModelAscEffectiveFromAsc()) {
+                loaded.computeIfAbsent(key(price.getProvider(), price.getModel()), k -> new ArrayList<>()).add(price);
+            }
+            prices = loaded;
+        } catch (Exception e) {
+            System.err.println("❌ Could not load model prices: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cost of the tokens at the price in effect at the given time, or null
+     * when the model has no price (then).
+     */
+    public Double costOf(String provider, String model, long tokens, LocalDateTime at) {
+        if (provider == null || model == null) {
+            return null;
+        }
+        List<ModelPrice> versions = prices.get(key(provider, model));
+        if (versions == null) {
+            return null;
+        }
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            ModelPrice price = versions.get(i);
+            if (!price.getEffectiveFrom().isAfter(at)) {
+                return tokens / 1_000_000.0 * price.getUsdPerMillionTokens();
+            }
+        }
+        return null;
+    }
+
+    public List<ModelPrice> getPrices() {
+        return modelPriceRepository.findAllByOrderByProviderAscModelAscEffectiveFromAsc();
+    }
+
+    /**
+     * Add a price version. Existing versions are never changed, so costs
+     * already recorded keep the price they were computed with.
+     */
+    public ModelPrice addPrice(String provider, String model, double usdPerMillionTokens, LocalDateTime effectiveFrom) {
+        if (provider == null || provider.isBlank() || model == null || model.isBlank()) {
+            throw new IllegalArgumentException("provider and model are required");
+        }
+        if (usdPerMillionTokens < 0) {
+            throw new IllegalArgumentException("usdPerMillionTokens must not be negative");
+        }
+        ModelPrice price = new ModelPrice();
+        price.setProvider(normalize(provider));
+        price.setModel(normalize(model));
+        price.setUsdPerMillionTokens(usdPerMillionTokens);
+        price.setEffectiveFrom(effectiveFrom != null ? effectiveFrom : LocalDateTime.now());
+        if (modelPriceRepository.existsByProviderAndModelAndEffectiveFrom(
+                price.getProvider(), price.getModel(), price.getEffectiveFrom())) {
+            throw new IllegalArgumentException("A price for " + price.getProvider() + "/" + price.getModel()
+                    + " already starts at " + price.getEffectiveFrom());
+        }
+        ModelPrice saved = modelPriceRepository.save(price);
+        reload();
+        return saved;
+    }
+
+    public boolean isEmpty() {
+        return modelPriceRepository.count() == 0;
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String provider, String model) {
+        return normalize(provider) + "/" + normalize(model);
+    }
+}
@@ -0,0 +1,105 @@
+// src/main/java/com/example/lighthouse/service/ProjectApiKeyCache.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.repository.ProjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory cache of API key to project for SDK authentication.
+ * Unknown keys are cached too (for a shorter time) so invalid keys do not
+ * hit the database on every request.
+ */
+@Service
+public class ProjectApiKeyCache {
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Value("${lighthouse.sdk.api-key-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${lighthouse.sdk.api-key-cache.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    @Value("${lighthouse.sdk.api-key-cache.max-size:10000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, CacheEntry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Cached project, or null for a key known to be invalid.
+     */
+    private record CacheEntry(Project project, long expiresAtNanos) {}
+
+    public Optional<Project> findByApiKey(String apiKey) {
+        long now = System.nanoTime();
+        CacheEntry entry = entries.get(apiKey);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            hits.increment();
+            return Optional.ofNullable(entry.project());
+        }
+
+        misses.increment();
+        Optional<Project> projectOpt = projectRepository.findByApiKey(apiKey);
+
+        long ttl = projectOpt.isPresent() ? ttlSeconds : negativeTtlSeconds;
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(apiKey, new CacheEntry(projectOpt.orElse(null), now + TimeUnit.SECONDS.toNanos(ttl)));
+
+        return projectOpt;
+    }
+
+    public void invalidate(String apiKey) {
+        if (apiKey != null) {
+            entries.remove(apiKey);
+        }
+    }
+
+    /**
+     * Drop every cached key that points to the given project.
+     */
+    public void invalidateProject(String projectId) {
+        entries.values().removeIf(entry -> entry.project() != null && projectId.equals(entry.project().getId()));
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private void evict(long now) {
+        // Expired entries go first
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+
+        // Then trim to 90% of the limit with arbitrary entries rather than scanning for the oldest
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+// src/main/java/com/example/lighthouse/service/TraceBodyStore.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.Model.TraceBody;
+import com.example.lighthouse.repository.TraceBodyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-addressed storage of long prompts and responses. Templated system
+ * prompts and the database context of external-DB queries repeat byte for
+ * byte across traces, so each distinct text is written once to trace_bodies
+ * under its SHA-256 and traces reference it by hash. Hashes written recently
+ * are remembered in memory, so a repeated body costs no database write at all.
+ */
+@Service
+public class TraceBodyStore {
+
+    @Autowired
+    private TraceBodyRepository traceBodyRepository;
+
+    @Autowired
+    private TracePartitionManager tracePartitionManager;
+
+    @Value("${lighthouse.traces.bodies.enabled:true}")
+    private boolean enabled;
+
+    // Shorter texts stay inline; a hash and a preview would not save anything
+    @Value("${lighthouse.traces.bodies.min-chars:1024}")
+    private int minChars;
+
+    @Value("${lighthouse.traces.preview-length:200}")
+    private int previewLength;
+
+    // 0 keeps traces (and so their bodies) forever
+    @Value("${lighthouse.traces.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${lighthouse.traces.retention.delete-chunk-size:5000}")
+    private int deleteChunkSize;
+
+    // Hashes known to be stored, with the day they were last marked as used
+    private final Map<String, LocalDate> known;
+
+    private final LongAdder sharedTexts = new LongAdder();
+    private final LongAdder sharedBytes = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder upsertedBodies = new LongAdder();
+    private final LongAdder upsertedBytes = new LongAdder();
+
+    private record PendingText(Trace trace, boolean prompt, String hash, String preview) {}
+
+    public TraceBodyStore(@Value("${lighthouse.traces.bodies.cache-size:10000}") int cacheSize) {
+        this.known = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LocalDate> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Move long prompts and responses of new traces to trace_bodies, writing
+     * only bodies that are not known to be stored yet. The bodies are
+     * committed on their own, before the traces that reference them.
+     */
+    public void share(List<Trace> traces) {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<PendingText> pending = new ArrayList<>();
+        Map<String, TraceBody> toWrite = new LinkedHashMap<>();
+        for (Trace trace : traces) {
+            if (trace.getPromptHash() == null) {
+                collect(trace, true, trace.getPrompt(), today, pending, toWrite);
+            }
+            if (trace.getResponseHash() == null) {
+                collect(trace, false, trace.getResponse(), today, pending, toWrite);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        traceBodyRepository.upsertAll(new ArrayList<>(toWrite.values()), today);
+        for (TraceBody body : toWrite.values()) {
+            known.put(body.getHash(), today);
+            upsertedBodies.increment();
+            upsertedBytes.add(body.getSizeBytes());
+        }
+        // Traces only point at bodies once those are stored
+        for (PendingText text : pending) {
+            if (text.prompt()) {
+                text.trace().sharePrompt(text.hash(), text.preview());
+            } else {
+                text.trace().shareResponse(text.hash(), text.preview());
+            }
+        }
+    }
+
+    private void collect(Trace trace, boolean prompt, String text, LocalDate today,
+                         List<PendingText> pending, Map<String, TraceBody> toWrite) {
+        if (text == null || text.length() < minChars) {
+            return;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(utf8);
+        pending.add(new PendingText(trace, prompt, hash, text.substring(0, Math.min(previewLength, text.length()))));
+        sharedTexts.increment();
+        sharedBytes.add(utf8.length);
+
+        if (today.equals(known.get(hash))) {
+            cacheHits.increment();
+        } else {
+            toWrite.putIfAbsent(hash, new TraceBody(hash, text, utf8.length));
+        }
+    }
+
+    /**
+     * Bodies outlive their traces by a day: every use moves lastUsedAt to the
+     * current day, so a body unused for longer than the retention period is
+     * no longer referenced by any trace. That only holds while retention
+     * actually removes traces, which needs the partitioned table.
+     */
+    @Scheduled(cron = "${lighthouse.traces.bodies.cleanup-cron:0 45 0 * * *}")
+    public void deleteUnusedBodies() {
+        if (retentionDays <= 0 || !tracePartitionManager.isPartitioned()) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays + 1L);
+        try {
+            long total = 0;
+            int deleted;
+            do {
+                deleted = traceBodyRepository.deleteUnusedBefore(cutoff, deleteChunkSize);
+                total += deleted;
+            } while (deleted == deleteChunkSize);
+            if (total > 0) {
+                System.out.println("🧹 Deleted " + total + " unused trace bodies");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Trace body cleanup failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long shared = sharedBytes.sum();
+        long upserted = upsertedBytes.sum();
+        stats.put("enabled", enabled);
+        stats.put("minChars", minChars);
+        stats.put("sharedTexts", sharedTexts.sum());
+        stats.put("sharedBytes", shared);
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("upsertedBodies", upsertedBodies.sum());
+        stats.put("upsertedBytes", upserted);
+        stats.put("deduplicationRatio", upserted > 0 ? Math.round(shared * 100.0 / upserted) / 100.0 : null);
+        return stats;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+// src/main/java/com/example/lighthouse/service/TraceColdStorage.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.ColdTraceBody;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moves the text of old traces to a compressed cold tier. A background job
+ * deflates prompt, response and hallucinationData of traces past the cold age
+ * into traces.cold_body and cuts the text columns down to a preview, so list
+ * views and summaries read as before. Trace decompresses the body on first
+ * access, so repository reads and GET /{id} return the full text.
+ */
+@Service
+@DependsOn("tracePartitionManager") // the index must be created on the final traces table
+public class TraceColdStorage {
+
+    private static final String SELECT_SQL =
+            "SELECT id, created_at, prompt, response, hallucination_data, " +
+                    "prompt_hash IS NOT NULL, response_hash IS NOT NULL FROM traces " +
+                    "WHERE cold_body IS NULL AND created_at < ? " +
+                    // Traces still being checked are updated soon; leave them hot
+                    "AND (hallucination_status IS NULL OR hallucination_status <> 'PENDING') " +
+                    "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String UPDATE_SQL =
+            "UPDATE traces SET cold_body = ?, prompt = ?, response = ?, hallucination_data = NULL " +
+                    "WHERE id = ? AND created_at = ?";
+
+    // One in this many bodies is decoded again to measure read cost
+    private static final int DECODE_SAMPLE_RATE = 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // 0 keeps every trace hot
+    @Value("${lighthouse.traces.cold.after-days:30}")
+    private int afterDays;
+
+    @Value("${lighthouse.traces.cold.batch-size:500}")
+    private int batchSize;
+
+    @Value("${lighthouse.traces.cold.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${lighthouse.traces.preview-length:200}")
+    private int previewLength;
+
+    private volatile boolean available;
+
+    private final LongAdder compressedTraces = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder decodeSamples = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final AtomicLong sampleCounter = new AtomicLong();
+
+    // Shared prompts and responses (see TraceBodyStore) stay where they are;
+    // the text column of those only holds the preview already
+    private record HotTrace(String id, Timestamp createdAt, String prompt, String response,
+                            String hallucinationData, boolean promptShared, boolean responseShared) {
+        ColdTraceBody body() {
+            return new ColdTraceBody(promptShared ? null : prompt, responseShared ? null : response, hallucinationData);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (afterDays <= 0) {
+            return;
+        }
+        try {
+            // Only hot rows are indexed, so finding the next batch stays cheap
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_traces_hot_created_at ON traces (created_at) " +
+                    "WHERE cold_body IS NULL");
+            available = true;
+        } catch (Exception e) {
+            System.err.println("❌ Cold trace storage unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Compress traces past the cold age, a batch per transaction.
+     */
+    @Scheduled(fixedDelayString = "${lighthouse.traces.cold.interval-ms:600000}",
+            initialDelayString = "${lighthouse.traces.cold.initial-delay-ms:60000}")
+    public void compressColdTraces() {
+        if (!available) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(afterDays);
+        long total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                Integer compressed = transactionTemplate.execute(status -> compressBatch(cutoff));
+                total += compressed != null ? compressed : 0;
+                if (compressed == null || compressed < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Cold trace compression failed: " + e.getMessage());
+        }
+        if (total > 0) {
+            System.out.println("🧊 Compressed " + total + " cold traces");
+        }
+    }
+
+    private int compressBatch(LocalDateTime cutoff) {
+        List<HotTrace> traces = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new HotTrace(
+                rs.getString(1),
+                rs.getTimestamp(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                rs.getBoolean(6),
+                rs.getBoolean(7)
+        ), Timestamp.valueOf(cutoff), batchSize);
+        if (traces.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>(traces.size());
+        for (HotTrace trace : traces) {
+            ColdTraceBody body = trace.body();
+            long started = System.nanoTime();
+            byte[] encoded = body.encode();
+            encodeNanos.add(System.nanoTime() - started);
+
+            if (sampleCounter.incrementAndGet() % DECODE_SAMPLE_RATE == 0) {
+                started = System.nanoTime();
+                ColdTraceBody.decode(encoded);
+                decodeNanos.add(System.nanoTime() - started);
+                decodeSamples.increment();
+            }
+
+            String prompt = preview(trace.prompt());
+            String response = preview(trace.response());
+            rawBytes.add(body.rawBytes());
+            storedBytes.add(encoded.length + new ColdTraceBody(
+                    trace.promptShared() ? null : prompt, trace.responseShared() ? null : response, null).rawBytes());
+            updates.add(new Object[]{encoded, prompt, response, trace.id(), trace.createdAt()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        compressedTraces.add(traces.size());
+        return traces.size();
+    }
+
+    private String preview(String text) {
+        if (text == null || text.length() <= previewLength) {
+            return text;
+        }
+        return text.substring(0, previewLength);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long compressed = compressedTraces.sum();
+        long raw = rawBytes.sum();
+        long stored = storedBytes.sum();
+        long samples = decodeSamples.sum();
+        stats.put("enabled", available);
+        stats.put("afterDays", afterDays);
+        stats.put("compressedTraces", compressed);
+        stats.put("rawBytes", raw);
+        stats.put("storedBytes", stored);
+        stats.put("compressionRatio", stored > 0 ? Math.round(raw * 100.0 / stored) / 100.0 : null);
+        stats.put("averageEncodeMicros", compressed > 0 ? encodeNanos.sum() / compressed / 1000.0 : null);
+        stats.put("averageDecodeMicros", samples > 0 ? decodeNanos.sum() / samples / 1000.0 : null);
+        return stats;
+    }
+}
@@ -0,0 +1,240 @@
+// src/main/java/com/example/lighthouse/service/TraceExportService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceFilter;
+import com.example.lighthouse.repository.TraceRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams traces as NDJSON or CSV straight from a database cursor to an
+ * output stream, optionally gzipped. Rows are written as they are read, so
+ * memory use is the same for ten rows or a hundred million.
+ */
+@Service
+public class TraceExportService {
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String[] CSV_COLUMNS = {
+            "id", "projectId", "provider", "model", "createdAt", "tokensUsed", "costUsd", "latencyMs",
+            "timeToFirstTokenMs", "confidenceScore", "hallucinationStatus", "unsupportedClaimCount",
+            "hasHallucinations", "databaseConnectionId",
+            "prompt", "response", "hallucinationData"
+    };
+
+    @Autowired
+    private TraceRepository traceRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${lighthouse.traces.export.fetch-size:1000}")
+    private int fetchSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final Semaphore running;
+    private final int maxConcurrent;
+    private final LongAdder exportedRows = new LongAdder();
+
+    public TraceExportService(@Value("${lighthouse.traces.export.max-concurrent:4}") int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Reserve an export slot; false when too many exports are running.
+     * Every successful call must be matched by {@link #export}.
+     */
+    public boolean tryStart() {
+        return running.tryAcquire();
+    }
+
+    /**
+     * Write every trace matching the filter, oldest first, then release the
+     * slot taken by {@link #tryStart}.
+     */
+    public void export(TraceFilter filter, String format, boolean gzip, OutputStream out) throws IOException {
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 65536) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 65536);
+            RowWriter rows = CSV.equals(format) ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+            readOnlyTransaction.executeWithoutResult(status -> {
+                traceRepository.forEach(filter, fetchSize, trace -> {
+                    try {
+                        rows.write(trace);
+                        exportedRows.increment();
+                    } catch (IOException e) {
+                        // Usually the client went away; this also closes the cursor
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            });
+            rows.finish();
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        } finally {
+            running.release();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", maxConcurrent - running.availablePermits());
+        stats.put("maxConcurrent", maxConcurrent);
+        stats.put("exportedRows", exportedRows.sum());
+        return stats;
+    }
+
+    private interface RowWriter {
+        void write(Trace trace) throws IOException;
+
+        default void finish() throws IOException {
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            // The writer is flushed and closed by the caller, not per row
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Trace trace) throws IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", trace.getId());
+            generator.writeStringField("projectId", trace.getProject() != null ? trace.getProject().getId() : null);
+            generator.writeStringField("provider", trace.getProvider());
+            generator.writeStringField("model", trace.getModel());
+            generator.writeStringField("createdAt", trace.getCreatedAt() != null ? trace.getCreatedAt().toString() : null);
+            writeNumber("tokensUsed", trace.getTokensUsed());
+            writeNumber("costUsd", trace.getCostUsd());
+            writeNumber("latencyMs", trace.getLatencyMs());
+            writeNumber("timeToFirstTokenMs", trace.getTimeToFirstTokenMs());
+            writeNumber("confidenceScore", trace.getConfidenceScore());
+            generator.writeStringField("hallucinationStatus", trace.getHallucinationStatus());
+            writeNumber("unsupportedClaimCount", trace.getUnsupportedClaimCount());
+            if (trace.getHasHallucinations() == null) {
+                generator.writeNullField("hasHallucinations");
+            } else {
+                generator.writeBooleanField("hasHallucinations", trace.getHasHallucinations());
+            }
+            generator.writeStringField("databaseConnectionId", trace.getDatabaseConnectionId());
+            generator.writeStringField("prompt", trace.getPrompt());
+            generator.writeStringField("response", trace.getResponse());
+            generator.writeStringField("hallucinationData", trace.getHallucinationData());
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+
+        private void writeNumber(String field, Number value) throws IOException {
+            if (value == null) {
+                generator.writeNullField(field);
+            } else if (value instanceof Double d) {
+                generator.writeNumberField(field, d);
+            } else {
+                generator.writeNumberField(field, value.intValue());
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writer.write(String.join(",", CSV_COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Trace trace) throws IOException {
+            Object[] values = {
+                    trace.getId(),
+                    trace.getProject() != null ? trace.getProject().getId() : null,
+                    trace.getProvider(),
+                    trace.getModel(),
+                    trace.getCreatedAt(),
+                    trace.getTokensUsed(),
+                    trace.getCostUsd(),
+                    trace.getLatencyMs(),
+                    trace.getTimeToFirstTokenMs(),
+                    trace.getConfidenceScore(),
+                    trace.getHallucinationStatus(),
+                    trace.getUnsupportedClaimCount(),
+                    trace.getHasHallucinations(),
+                    trace.getDatabaseConnectionId(),
+                    trace.getPrompt(),
+                    trace.getResponse(),
+                    trace.getHallucinationData()
+            };
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // RFC 4180: quote fields with separators, quotes or line breaks
+        private void writeField(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
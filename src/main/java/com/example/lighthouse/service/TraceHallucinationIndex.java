@@ -0,0 +1,143 @@
+// src/main/java/com/example/lighthouse/service/TraceHallucinationIndex.java
+package com.example.lighthouse.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Schema for structured hallucination results: hallucination_data is JSONB,
+ * and the claim counts and has-hallucinations flag are extracted into their
+ * own indexed columns so traces can be filtered on them without reading the
+ * JSON.
+ *
+ * Tables from earlier versions, where the result was TEXT, are converted
+ * online: a JSONB column is added next to it and kept current by a trigger,
+ * existing rows are copied over in small chunks on a background thread, and
+ * the columns are swapped in one short transaction. Values that are not
+ * valid JSON are kept as JSON strings rather than failing the conversion.
+ */
+@Service
+@DependsOn("tracePartitionManager") // indexes must be created on the final traces table
+public class TraceHallucinationIndex {
+    private static final String NEW_COLUMN = "hallucination_data_json";
+    private static final String SYNC_TRIGGER = "traces_hallucination_json_sync";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TracePartitionManager tracePartitionManager;
+
+    @Value("${lighthouse.traces.backfill.batch-size:5000}")
+    private int backfillBatchSize;
+
+    @PostConstruct
+    public void init() {
+        try {
+            List<String> type = jdbcTemplate.queryForList(
+                    "SELECT data_type FROM information_schema.columns WHERE table_schema = current_schema() " +
+                            "AND table_name = 'traces' AND column_name = 'hallucination_data'",
+                    String.class);
+            boolean convert = !type.isEmpty() && !"jsonb".equals(type.get(0));
+            if (convert) {
+                prepareConversion();
+            }
+            Thread.ofVirtual().name("trace-hallucination-schema").start(() -> finish(convert));
+        } catch (Exception e) {
+            System.err.println("❌ Could not set up hallucination result columns: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add the JSONB column and keep it in step with every write from now on.
+     * Both are catalog changes, so startup is not held up by the table size.
+     */
+    private void prepareConversion() {
+        System.out.println("🔧 Converting traces.hallucination_data to JSONB in the background...");
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION lighthouse_try_jsonb(value text) RETURNS jsonb AS $$ " +
+                "BEGIN RETURN nullif(value, '')::jsonb; " +
+                "EXCEPTION WHEN others THEN RETURN to_jsonb(value); " +
+                "END $$ LANGUAGE plpgsql IMMUTABLE");
+        jdbcTemplate.execute("ALTER TABLE traces ADD COLUMN IF NOT EXISTS " + NEW_COLUMN + " jsonb");
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + SYNC_TRIGGER + "() RETURNS trigger AS $$ " +
+                "BEGIN NEW." + NEW_COLUMN + " := lighthouse_try_jsonb(NEW.hallucination_data); RETURN NEW; " +
+                "END $$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + SYNC_TRIGGER + " ON traces");
+        jdbcTemplate.execute("CREATE TRIGGER " + SYNC_TRIGGER + " " +
+                "BEFORE INSERT OR UPDATE OF hallucination_data ON traces " +
+                "FOR EACH ROW EXECUTE FUNCTION " + SYNC_TRIGGER + "()");
+    }
+
+    private void finish(boolean convert) {
+        try {
+            if (convert) {
+                long copied = backfill("UPDATE traces SET " + NEW_COLUMN + " = lighthouse_try_jsonb(hallucination_data) " +
+                        "WHERE id > ? AND id <= ? AND hallucination_data IS NOT NULL AND " + NEW_COLUMN + " IS NULL");
+                swapColumns();
+
+                // Cold traces keep their result compressed, so only the hot ones are filled in
+                long extracted = backfill("UPDATE traces SET " +
+                        "unsupported_claim_count = coalesce(jsonb_array_length(hallucination_data -> 'unsupportedClaims'), 0), " +
+                        "supported_claim_count = coalesce(jsonb_array_length(hallucination_data -> 'supportedClaims'), 0), " +
+                        "has_hallucinations = coalesce((hallucination_data ->> 'hasHallucinations')::boolean, false) " +
+                        "WHERE id > ? AND id <= ? AND hallucination_data IS NOT NULL AND unsupported_claim_count IS NULL " +
+                        "AND jsonb_typeof(hallucination_data) = 'object'");
+                System.out.println("✅ hallucination_data is now JSONB (" + copied + " results converted, "
+                        + extracted + " extracted)");
+            }
+
+            tracePartitionManager.createIndexConcurrently("idx_traces_hallucinated_created_at",
+                    "(created_at) WHERE has_hallucinations");
+            tracePartitionManager.createIndexConcurrently("idx_traces_unsupported_claims",
+                    "(unsupported_claim_count, created_at) WHERE unsupported_claim_count > 0");
+        } catch (Exception e) {
+            // The TEXT column stays in use, so the conversion simply resumes on the next start
+            System.err.println("❌ Hallucination result schema not finished, retried on next start: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run an update bounded by "id > ? AND id <= ?" over the whole table, one
+     * chunk of the primary key at a time. Returns the rows updated.
+     */
+    private long backfill(String update) {
+        String after = "";
+        long updated = 0;
+        while (true) {
+            String last = jdbcTemplate.queryForObject(
+                    "SELECT max(id) FROM (SELECT id FROM traces WHERE id > ? ORDER BY id LIMIT ?) chunk",
+                    String.class, after, backfillBatchSize);
+            if (last == null) {
+                return updated;
+            }
+            updated += jdbcTemplate.update(update, after, last);
+            after = last;
+        }
+    }
+
+    /**
+     * Replace the TEXT column with the filled-in JSONB one. Dropping and
+     * renaming columns only touch the catalog, so the lock is held briefly.
+     */
+    private void swapColumns() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+            jdbcTemplate.execute("LOCK TABLE traces IN ACCESS EXCLUSIVE MODE");
+            // Rows written between the last chunk and the lock already went through the trigger
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + SYNC_TRIGGER + " ON traces");
+            jdbcTemplate.execute("DROP FUNCTION IF EXISTS " + SYNC_TRIGGER + "()");
+            jdbcTemplate.execute("ALTER TABLE traces DROP COLUMN hallucination_data");
+            jdbcTemplate.execute("ALTER TABLE traces RENAME COLUMN " + NEW_COLUMN + " TO hallucination_data");
+        });
+    }
+}
@@ -0,0 +1,231 @@
+// src/main/java/com/example/lighthouse/service/TraceIngestQueue.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind buffer for asynchronous SDK ingestion. Requests only enqueue;
+ * a single background thread drains the queue into TraceRepository in batches
+ * that are flushed when they reach the batch size or the flush interval elapses.
+ *
+ * Queued traces were already acknowledged with their ID, so a failed batch is
+ * retried, then written row by row to isolate the trace that breaks it. A
+ * trace that still cannot be stored, nor spooled, is reported as data loss.
+ */
+@Service
+public class TraceIngestQueue {
+
+    @Autowired
+    private TraceIngestService traceIngestService;
+
+    @Autowired
+    private IngestIdempotencyService idempotencyService;
+
+    @Value("${lighthouse.ingest.queue.capacity:10000}")
+    private int capacity;
+
+    @Value("${lighthouse.ingest.queue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${lighthouse.ingest.queue.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${lighthouse.ingest.queue.retry-attempts:3}")
+    private int retryAttempts;
+
+    // Doubled after every failed attempt
+    @Value("${lighthouse.ingest.queue.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    private BlockingQueue<Trace> queue;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong retriedBatchCount = new AtomicLong();
+    private final AtomicLong splitBatchCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    private volatile long lastFlushMs;
+    private volatile String lastDropReason;
+    private volatile LocalDateTime lastDropAt;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        running = true;
+        flusher = new Thread(this::runFlusher, "trace-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Let the flusher drain what is already queued before shutting down
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    /**
+     * Queue a trace for persistence. Assigns the trace ID up front so it can be
+     * returned immediately. Returns false when the queue is full.
+     */
+    public boolean offer(Trace trace) {
+        if (trace.getId() == null) {
+            trace.setId(UUID.randomUUID().toString());
+        }
+        if (queue.offer(trace)) {
+            acceptedCount.incrementAndGet();
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", capacity);
+        stats.put("remainingCapacity", queue.remainingCapacity());
+        stats.put("batchSize", batchSize);
+        stats.put("flushIntervalMs", flushIntervalMs);
+        stats.put("accepted", acceptedCount.get());
+        stats.put("rejected", rejectedCount.get());
+        stats.put("flushed", flushedCount.get());
+        stats.put("retriedBatches", retriedBatchCount.get());
+        stats.put("splitBatches", splitBatchCount.get());
+        stats.put("batches", batchCount.get());
+        stats.put("lastFlushMs", lastFlushMs);
+        // Acknowledged traces that were neither stored nor spooled
+        Map<String, Object> dataLoss = new HashMap<>();
+        dataLoss.put("droppedTraces", droppedCount.get());
+        dataLoss.put("lastReason", lastDropReason);
+        dataLoss.put("lastAt", lastDropAt);
+        stats.put("dataLoss", dataLoss);
+        return stats;
+    }
+
+    private void runFlusher() {
+        List<Trace> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Trace first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Keep collecting until the batch is full or the interval elapses
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Trace next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutdown requested: pick up whatever is left without waiting
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Trace> traces) {
+        long start = System.currentTimeMillis();
+
+        Exception error = persist(traces, retryAttempts);
+        if (error == null) {
+            flushedCount.addAndGet(traces.size());
+        } else if (traces.size() == 1) {
+            drop(traces.get(0), error);
+        } else {
+            // The batch is one transaction, so a single bad trace fails all of them
+            splitBatchCount.incrementAndGet();
+            System.err.println("⚠️ Queued batch of " + traces.size() + " failed (" + error.getMessage()
+                    + ") - storing its traces one by one");
+            for (Trace trace : traces) {
+                Exception traceError = persist(List.of(trace), 1);
+                if (traceError == null) {
+                    flushedCount.incrementAndGet();
+                } else {
+                    drop(trace, traceError);
+                }
+            }
+        }
+
+        batchCount.incrementAndGet();
+        lastFlushMs = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Persist, falling back to the local spool while the database is down.
+     * Returns the last error, or null once the traces are stored or spooled.
+     */
+    private Exception persist(List<Trace> traces, int attempts) {
+        Exception error = null;
+        long backoff = retryBackoffMs;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            try {
+                traceIngestService.persist(traces);
+                return null;
+            } catch (Exception e) {
+                error = e;
+            }
+            if (attempt < attempts) {
+                retriedBatchCount.incrementAndGet();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    // Shutting down: one more attempt, without waiting
+                    Thread.currentThread().interrupt();
+                    attempts = attempt + 1;
+                }
+                backoff *= 2;
+            }
+        }
+        return error;
+    }
+
+    private void drop(Trace trace, Exception error) {
+        droppedCount.incrementAndGet();
+        lastDropReason = error.getMessage();
+        lastDropAt = LocalDateTime.now();
+        System.err.println("❌ DATA LOSS: queued trace " + trace.getId() + " could not be stored or spooled: "
+                + error.getMessage());
+        // Given up on, so a retry by the client may store it after all
+        if (trace.getIdempotencyKey() != null) {
+            idempotencyService.release(trace.getProject().getId(), trace.getIdempotencyKey(), trace.getId());
+        }
+    }
+}
@@ -0,0 +1,273 @@
+// src/main/java/com/example/lighthouse/service/TraceIngestService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceIngestRequest;
+import com.example.lighthouse.repository.TraceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Turns SDK payloads into traces and persists them. Shared by the single-trace,
+ * batch and async ingest paths so all apply the same field conversion rules.
+ */
+@Service
+public class TraceIngestService {
+    private static final int MAX_PROVIDER_LENGTH = 255;
+    private static final int MAX_MODEL_LENGTH = 255;
+
+    @Autowired
+    private TraceRepository traceRepository;
+
+    @Autowired
+    private HallucinationCheckService hallucinationCheckService;
+
+    @Autowired
+    private IngestIdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TraceBodyStore traceBodyStore;
+
+    @Autowired
+    private TraceSpool traceSpool;
+
+    @Autowired
+    private TraceRollupService traceRollupService;
+
+    @Autowired
+    private TraceStreamHub traceStreamHub;
+
+    @Autowired
+    private CostLedgerService costLedgerService;
+
+    @Autowired
+    private ModelPriceService modelPriceService;
+
+    @Value("${lighthouse.sdk.max-text-length:1000000}")
+    private int maxTextLength;
+
+    @Value("${lighthouse.ingest.spool.db-retry-after-ms:5000}")
+    private long dbRetryAfterMs;
+
+    // While in the future, writes go straight to the spool instead of waiting on the database
+    private volatile long databaseDownUntil;
+
+    /**
+     * Outcome of {@link #persist}: indexes of duplicate traces, or spooled
+     * when the traces were parked in the local spool for later replay.
+     */
+    public record PersistResult(Set<Integer> duplicates, boolean spooled) {}
+
+    /**
+     * Check field sizes and ranges. Returns an error message, or null when the
+     * payload is acceptable. The request is not modified.
+     */
+    public String validate(TraceIngestRequest request) {
+        if (request == null) {
+            return "Trace must be a JSON object";
+        }
+        if (request.getPrompt().length() > maxTextLength) {
+            return "prompt exceeds " + maxTextLength + " characters";
+        }
+        if (request.getResponse().length() > maxTextLength) {
+            return "response exceeds " + maxTextLength + " characters";
+        }
+        if (request.getProvider().length() > MAX_PROVIDER_LENGTH) {
+            return "provider exceeds " + MAX_PROVIDER_LENGTH + " characters";
+        }
+        String model = request.getModel();
+        if (model != null && model.length() > MAX_MODEL_LENGTH) {
+            return "model exceeds " + MAX_MODEL_LENGTH + " characters";
+        }
+        if (request.getTokensUsed() < 0 || request.getLatencyMs() < 0
+                || (request.getCostUsd() != null && request.getCostUsd() < 0)) {
+            return "tokensUsed, latencyMs and costUsd must not be negative";
+        }
+        Double confidenceScore = request.getConfidenceScore();
+        if (confidenceScore != null && (confidenceScore < 0 || confidenceScore > 100)) {
+            return "confidenceScore must be between 0 and 100";
+        }
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey != null && idempotencyKey.length() > IngestIdempotencyService.MAX_KEY_LENGTH) {
+            return "idempotencyKey exceeds " + IngestIdempotencyService.MAX_KEY_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    /**
+     * Fill in a missing costUsd from the model's current price, or 0 when the
+     * model has none. Call on a validated request before it is sampled or built.
+     */
+    public double resolveCost(TraceIngestRequest request) {
+        if (request.getCostUsd() == null) {
+            Double cost = modelPriceService.costOf(request.getProvider(), request.getModel(),
+                    request.getTokensUsed(), LocalDateTime.now());
+            request.setCostUsd(cost != null ? cost : 0.0);
+        }
+        return request.getCostUsd();
+    }
+
+    /**
+     * Build an unsaved trace from SDK data whose cost has been resolved (see
+     * resolveCost). When a databaseConnectionId is supplied the trace is
+     * marked PENDING for a background hallucination check.
+     */
+    public Trace buildTrace(Project project, TraceIngestRequest request) {
+        Trace trace = new Trace();
+
+        // Required fields
+        trace.setPrompt(request.getPrompt());
+        trace.setResponse(request.getResponse());
+        trace.setTokensUsed(request.getTokensUsed());
+        trace.setCostUsd(request.getCostUsd());
+        trace.setLatencyMs(request.getLatencyMs());
+        trace.setProvider(request.getProvider());
+        String model = request.getModel();
+        trace.setModel(model != null && !model.isBlank() ? model : null);
+
+        // Link to project
+        trace.setProject(project);
+        trace.setCreatedAt(LocalDateTime.now());
+
+        // Optional: confidence score if provided directly (a hallucination check overrides it)
+        trace.setConfidenceScore(request.getConfidenceScore());
+
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            trace.setIdempotencyKey(idempotencyKey);
+        }
+
+        // Hallucination detection runs on the worker pool once the trace is saved
+        String dbConnectionId = request.getDatabaseConnectionId();
+        if (dbConnectionId != null && !dbConnectionId.isEmpty()) {
+            hallucinationCheckService.markPending(trace, dbConnectionId);
+        }
+
+        return trace;
+    }
+
+    /**
+     * Persist traces, falling back to the local spool when the database is
+     * unreachable. After a failure the database is skipped for
+     * lighthouse.ingest.spool.db-retry-after-ms so requests do not each wait
+     * for a connection timeout. Throws TraceSpool.SpoolFullException when the
+     * spool cannot take the traces either.
+     */
+    public PersistResult persist(List<Trace> traces) {
+        if (traceSpool.isEnabled() && System.currentTimeMillis() < databaseDownUntil) {
+            return spool(traces);
+        }
+
+        try {
+            return new PersistResult(insertBatch(traces), false);
+        } catch (RuntimeException e) {
+            if (!traceSpool.isEnabled() || !isDatabaseUnavailable(e)) {
+                throw e;
+            }
+            databaseDownUntil = System.currentTimeMillis() + dbRetryAfterMs;
+            System.err.println("⚠️ Database unavailable, spooling traces locally: " + e.getMessage());
+            return spool(traces);
+        }
+    }
+
+    /**
+     * Called by the spool replayer once a write succeeds again.
+     */
+    public void markDatabaseAvailable() {
+        databaseDownUntil = 0;
+    }
+
+    public static boolean isDatabaseUnavailable(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private PersistResult spool(List<Trace> traces) {
+        for (Trace trace : traces) {
+            if (trace.getId() == null) {
+                trace.setId(UUID.randomUUID().toString());
+            }
+        }
+        traceSpool.append(traces);
+        // Retries of spooled traces should get the same trace ID back
+        for (Trace trace : traces) {
+            if (trace.getIdempotencyKey() != null) {
+                idempotencyService.remember(trace.getProject().getId(), trace.getIdempotencyKey(), trace.getId());
+            }
+        }
+        return new PersistResult(Set.of(), true);
+    }
+
+    /**
+     * Persist traces with JDBC batch inserts in a single transaction. Traces
+     * whose idempotency key was already used are not inserted; their ID is
+     * replaced with the original trace's ID and their index is returned. The
+     * rows actually written are then added to the rollups, the cost ledger and
+     * the live stream, and the pending ones get their hallucination check.
+     */
+    public Set<Integer> insertBatch(List<Trace> traces) {
+        List<Trace> keyed = new ArrayList<>();
+        for (Trace trace : traces) {
+            // Keys are claimed by trace ID, so IDs are needed before the insert
+            if (trace.getId() == null) {
+                trace.setId(UUID.randomUUID().toString());
+            }
+            if (trace.getIdempotencyKey() != null) {
+                keyed.add(trace);
+            }
+        }
+
+        // Shared bodies are committed first so a trace never points at a missing one
+        traceBodyStore.share(traces);
+
+        Set<Integer> duplicates = new HashSet<>();
+        // On failure the reservations stay: the queue retries these traces under the same IDs
+        List<Trace> inserted = transactionTemplate.execute(status -> {
+            Map<String, String> owners = idempotencyService.claimKeys(keyed);
+            List<Trace> fresh = new ArrayList<>(traces.size());
+            for (int i = 0; i < traces.size(); i++) {
+                Trace trace = traces.get(i);
+                String owner = owners.get(trace.getId());
+                if (owner != null) {
+                    trace.setId(owner);
+                    duplicates.add(i);
+                } else {
+                    fresh.add(trace);
+                }
+            }
+            // Only rows actually written are counted, streamed and checked
+            return traceRepository.insertAll(fresh);
+        });
+
+        for (Trace trace : keyed) {
+            idempotencyService.remember(trace.getProject().getId(), trace.getIdempotencyKey(), trace.getId());
+        }
+        for (Trace trace : inserted) {
+            traceRollupService.record(trace);
+            costLedgerService.record(trace);
+            traceStreamHub.publishTrace(trace);
+        }
+        hallucinationCheckService.submitPending(inserted);
+        return duplicates;
+    }
+}
@@ -0,0 +1,553 @@
+// src/main/java/com/example/lighthouse/service/TracePartitionManager.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.repository.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the traces table range-partitioned on created_at (daily or weekly).
+ * A daily job creates upcoming partitions and drops expired ones whole, so
+ * retention never has to delete rows one by one. Projects with a shorter
+ * retention than the global one are trimmed with small chunked deletes.
+ *
+ * An unpartitioned table left by Hibernate is only reported on startup and
+ * converted online when an operator asks for it (see startMigration). Until
+ * then the daily job does not run, so retention-days and project retention
+ * delete nothing.
+ */
+@Service
+@DependsOn("entityManagerFactory") // Hibernate must have created the schema first
+public class TracePartitionManager {
+    private static final String DEFAULT_PARTITION = "traces_default";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final Pattern BOUNDS = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Pattern INDEX_DEFINITION = Pattern.compile("^CREATE INDEX (\\S+) ON (\\S+\\.)?traces ");
+
+    // Online migration: shadow table, change log and its trigger
+    private static final String SHADOW = "traces_partitioned";
+    private static final String CHANGES = "traces_migration_changes";
+    private static final String LOG_TRIGGER = "traces_migration_log";
+    private static final String INDEX_SUFFIX = "_mig";
+    private static final int SWAP_ATTEMPTS = 5;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    @Lazy
+    private TraceRollupService traceRollupService;
+
+    @Value("${lighthouse.traces.partitioning.enabled:true}")
+    private boolean enabled;
+
+    // "daily" or "weekly"
+    @Value("${lighthouse.traces.partitioning.interval:daily}")
+    private String interval;
+
+    @Value("${lighthouse.traces.partitioning.premake:3}")
+    private int premake;
+
+    // 0 keeps traces forever; ignored while the table is not partitioned
+    @Value("${lighthouse.traces.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${lighthouse.traces.retention.delete-chunk-size:5000}")
+    private int deleteChunkSize;
+
+    @Value("${lighthouse.traces.partitioning.migration.batch-size:5000}")
+    private int migrationBatchSize;
+
+    // Between batches, to leave room for live traffic
+    @Value("${lighthouse.traces.partitioning.migration.pause-ms:50}")
+    private long migrationPauseMs;
+
+    @Value("${lighthouse.traces.partitioning.migration.swap-lock-timeout-ms:5000}")
+    private long swapLockTimeoutMs;
+
+    private volatile boolean partitioned;
+    private volatile boolean migrationRunning;
+    private volatile String migrationState;
+    private volatile String migrationError;
+    private final AtomicLong migratedRows = new AtomicLong();
+
+    private record Partition(String name, LocalDateTime from, LocalDateTime to) {}
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String kind = jdbcTemplate.queryForObject(
+                    "SELECT c.relkind::text FROM pg_class c " +
+                            "WHERE c.relname = 'traces' AND c.relnamespace = current_schema()::regnamespace",
+                    String.class);
+            // Read-only: converting a live table is left to the operator
+            if ("r".equals(kind)) {
+                System.out.println("⚠️ traces is not partitioned, so retention is not applied; "
+                        + "POST /api/traces/storage/partition converts it online");
+                return;
+            }
+            partitioned = true;
+            maintain();
+        } catch (Exception e) {
+            System.err.println("❌ Trace partitioning unavailable, keeping a plain traces table: " + e.getMessage());
+        }
+    }
+
+    public boolean isPartitioned() {
+        return partitioned;
+    }
+
+    /**
+     * Build an index on traces without blocking writes, e.g.
+     * createIndexConcurrently("idx_x", "(created_at) WHERE ..."). A partitioned
+     * table cannot be indexed CONCURRENTLY as a whole, so the index is declared
+     * on the parent only, built concurrently on each partition and attached;
+     * partitions created later get it automatically. The invalid leftovers of
+     * an interrupted build are dropped and built again.
+     */
+    public void createIndexConcurrently(String name, String definition) {
+        if (!partitioned) {
+            dropInvalidIndex(name);
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON traces " + definition);
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + name + " ON ONLY traces " + definition);
+        List<String> indexed = jdbcTemplate.queryForList(
+                "SELECT t.relname FROM pg_inherits i JOIN pg_index x ON x.indexrelid = i.inhrelid " +
+                        "JOIN pg_class t ON t.oid = x.indrelid WHERE i.inhparent = ?::regclass",
+                String.class, name);
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "WHERE i.inhparent = 'traces'::regclass",
+                String.class);
+        for (String partition : partitions) {
+            if (indexed.contains(partition)) {
+                continue;
+            }
+            String child = name + "_" + partition.substring("traces_".length());
+            dropInvalidIndex(child);
+            jdbcTemplate.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + child + " ON " + partition + " " + definition);
+            jdbcTemplate.execute("ALTER INDEX " + name + " ATTACH PARTITION " + child);
+        }
+    }
+
+    private void dropInvalidIndex(String name) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?)", Boolean.class, name);
+        if (!valid.isEmpty() && !valid.get(0)) {
+            jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+    }
+
+    /**
+     * Create upcoming partitions, drop expired ones and apply per-project retention.
+     */
+    @Scheduled(cron = "${lighthouse.traces.partitioning.maintenance-cron:0 15 0 * * *}")
+    public void maintain() {
+        if (!partitioned) {
+            return;
+        }
+        try {
+            createUpcomingPartitions();
+            dropExpiredPartitions();
+            applyProjectRetention();
+        } catch (Exception e) {
+            System.err.println("❌ Trace partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("partitioned", partitioned);
+        stats.put("interval", interval);
+        stats.put("retentionDays", retentionDays);
+        if (partitioned) {
+            List<Partition> partitions = listPartitions();
+            stats.put("partitions", partitions.size());
+            stats.put("oldest", partitions.isEmpty() ? null : partitions.get(0).from());
+            stats.put("newest", partitions.isEmpty() ? null : partitions.get(partitions.size() - 1).to());
+        }
+        if (migrationState != null) {
+            Map<String, Object> migration = new HashMap<>();
+            migration.put("state", migrationState);
+            migration.put("copiedRows", migratedRows.get());
+            migration.put("error", migrationError);
+            stats.put("migration", migration);
+        }
+        return stats;
+    }
+
+    /**
+     * Convert a plain traces table into a partitioned one without taking the
+     * application down. Runs in the background; progress is in getStats().
+     */
+    public synchronized void startMigration() {
+        if (!enabled) {
+            throw new IllegalStateException("Trace partitioning is disabled");
+        }
+        if (partitioned) {
+            throw new IllegalStateException("traces is already partitioned");
+        }
+        if (migrationRunning) {
+            throw new IllegalStateException("A migration is already running");
+        }
+        migrationRunning = true;
+        migrationState = "starting";
+        migrationError = null;
+        migratedRows.set(0);
+        Thread.ofVirtual().name("trace-partition-migration").start(this::migrate);
+    }
+
+    /**
+     * Copy the rows into a partitioned shadow table in small batches while a
+     * trigger logs every row changed meanwhile, replay those changes, then
+     * swap the tables in one short transaction. The plain table stays in use
+     * until the swap, so a failure at any step leaves it untouched.
+     */
+    private void migrate() {
+        try {
+            System.out.println("🔧 Converting traces to a partitioned table...");
+            migrationState = "preparing";
+            List<String> columns = prepareShadowTable();
+
+            migrationState = "copying";
+            copyRows(columns);
+
+            migrationState = "catching-up";
+            // Writes keep coming in, so stop once the backlog fits in one batch
+            while (replayChanges(columns) >= migrationBatchSize) {
+                pause();
+            }
+
+            migrationState = "swapping";
+            swapTables(columns);
+
+            partitioned = true;
+            migrationState = "done";
+            System.out.println("✅ traces is now partitioned by created_at (" + interval + ")");
+            maintain();
+        } catch (Exception e) {
+            migrationState = "failed";
+            migrationError = e.getMessage();
+            System.err.println("❌ Trace partition migration failed, traces is unchanged: " + e.getMessage());
+        } finally {
+            migrationRunning = false;
+        }
+    }
+
+    /**
+     * Create the partitioned shadow table with the indexes and foreign keys
+     * of traces, and start logging changed rows. Returns the copied columns.
+     */
+    private List<String> prepareShadowTable() {
+        return transactionTemplate.execute(status -> {
+            // Leftovers of an interrupted run
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + LOG_TRIGGER + " ON traces");
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS " + LOG_TRIGGER + "_truncate ON traces");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW + ", " + CHANGES);
+
+            jdbcTemplate.execute("CREATE TABLE " + SHADOW + " (LIKE traces INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING GENERATED) " +
+                    "PARTITION BY RANGE (created_at)");
+            // The partition key has to be part of the primary key
+            jdbcTemplate.execute("ALTER TABLE " + SHADOW + " ADD CONSTRAINT " + SHADOW + "_pkey PRIMARY KEY (id, created_at)");
+            jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + SHADOW + " DEFAULT");
+
+            // Partitions for the history we keep, up to the premade ones, so
+            // nothing written during the copy ends up in the default partition
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM traces", LocalDateTime.class);
+            LocalDate start = periodStart(LocalDate.now());
+            if (oldest != null) {
+                LocalDate first = oldest.toLocalDate();
+                if (retentionDays > 0 && first.isBefore(LocalDate.now().minusDays(retentionDays))) {
+                    first = LocalDate.now().minusDays(retentionDays);
+                }
+                start = periodStart(first);
+            }
+            LocalDate last = LocalDate.now().plusDays((long) premake * (isWeekly() ? 7 : 1));
+            for (LocalDate day = start; !day.isAfter(last); day = nextPeriod(day)) {
+                createPartition(SHADOW, day);
+            }
+
+            // Index names are schema-wide, so the copies get a suffix until the swap
+            List<String> indexes = jdbcTemplate.queryForList(
+                    "SELECT pg_get_indexdef(i.indexrelid) FROM pg_index i " +
+                            "WHERE i.indrelid = 'traces'::regclass AND NOT i.indisprimary AND NOT i.indisunique",
+                    String.class);
+            for (String definition : indexes) {
+                Matcher matcher = INDEX_DEFINITION.matcher(definition);
+                if (matcher.find()) {
+                    jdbcTemplate.execute(matcher.replaceFirst("CREATE INDEX IF NOT EXISTS $1" + INDEX_SUFFIX + " ON " + SHADOW + " "));
+                }
+            }
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_traces_created_at_id" + INDEX_SUFFIX + " ON " + SHADOW + " (created_at, id)");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_traces_project_created_at_id" + INDEX_SUFFIX + " ON " + SHADOW + " (project_id, created_at, id)");
+
+            for (Map<String, Object> fk : jdbcTemplate.queryForList(
+                    "SELECT conname, pg_get_constraintdef(oid) AS def FROM pg_constraint " +
+                            "WHERE conrelid = 'traces'::regclass AND contype = 'f'")) {
+                jdbcTemplate.execute("ALTER TABLE " + SHADOW + " ADD CONSTRAINT " + fk.get("conname") + " " + fk.get("def"));
+            }
+
+            jdbcTemplate.execute("CREATE TABLE " + CHANGES + " (id varchar(255) PRIMARY KEY)");
+            jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + LOG_TRIGGER + "() RETURNS trigger AS $$ " +
+                    "BEGIN " +
+                    "IF TG_OP = 'TRUNCATE' THEN TRUNCATE " + SHADOW + ", " + CHANGES + "; RETURN NULL; END IF; " +
+                    "INSERT INTO " + CHANGES + " (id) VALUES (CASE WHEN TG_OP = 'DELETE' THEN OLD.id ELSE NEW.id END) " +
+                    "ON CONFLICT DO NOTHING; " +
+                    "RETURN NULL; " +
+                    "END $$ LANGUAGE plpgsql");
+            // Waits for in-flight writes, so every row written after this is logged
+            jdbcTemplate.execute("CREATE TRIGGER " + LOG_TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON traces " +
+                    "FOR EACH ROW EXECUTE FUNCTION " + LOG_TRIGGER + "()");
+            jdbcTemplate.execute("CREATE TRIGGER " + LOG_TRIGGER + "_truncate AFTER TRUNCATE ON traces " +
+                    "FOR EACH STATEMENT EXECUTE FUNCTION " + LOG_TRIGGER + "()");
+
+            // Generated columns are recomputed, not copied
+            return jdbcTemplate.queryForList(
+                    "SELECT quote_ident(column_name) FROM information_schema.columns " +
+                            "WHERE table_schema = current_schema() AND table_name = 'traces' " +
+                            "AND is_generated = 'NEVER' ORDER BY ordinal_position",
+                    String.class);
+        });
+    }
+
+    /**
+     * Copy every row in (created_at, id) order, one short transaction per batch.
+     */
+    private void copyRows(List<String> columns) {
+        String list = String.join(", ", columns);
+        String copy = "WITH batch AS (SELECT " + list + " FROM traces %s ORDER BY created_at, id LIMIT ?), " +
+                "copied AS (INSERT INTO " + SHADOW + " (" + list + ") SELECT " + list + " FROM batch ON CONFLICT DO NOTHING) " +
+                "SELECT b.created_at, b.id, (SELECT count(*) FROM batch) AS batch_rows FROM batch b " +
+                "ORDER BY b.created_at DESC, b.id DESC LIMIT 1";
+
+        List<Map<String, Object>> last = jdbcTemplate.queryForList(copy.formatted(""), migrationBatchSize);
+        while (!last.isEmpty()) {
+            Map<String, Object> row = last.get(0);
+            migratedRows.addAndGet(((Number) row.get("batch_rows")).longValue());
+            pause();
+            last = jdbcTemplate.queryForList(copy.formatted("WHERE (created_at, id) > (?, ?)"),
+                    row.get("created_at"), row.get("id"), migrationBatchSize);
+        }
+    }
+
+    /**
+     * Re-copy up to one batch of rows changed since the copy started.
+     * Returns how many were replayed.
+     */
+    private int replayChanges(List<String> columns) {
+        String list = String.join(", ", columns);
+        Integer replayed = transactionTemplate.execute(status -> {
+            List<String> ids = jdbcTemplate.queryForList(
+                    "DELETE FROM " + CHANGES + " WHERE id IN (SELECT id FROM " + CHANGES + " LIMIT ?) RETURNING id",
+                    String.class, migrationBatchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            String[] changed = ids.toArray(new String[0]);
+            jdbcTemplate.update("DELETE FROM " + SHADOW + " WHERE id = ANY(?)", (Object) changed);
+            // Deleted rows are simply not found here
+            jdbcTemplate.update("INSERT INTO " + SHADOW + " (" + list + ") SELECT " + list + " FROM traces WHERE id = ANY(?)",
+                    (Object) changed);
+            return ids.size();
+        });
+        return replayed != null ? replayed : 0;
+    }
+
+    /**
+     * Replay the last changes and swap the tables under a short exclusive
+     * lock. Gives up after a few tries rather than queueing every query
+     * behind a lock that cannot be taken.
+     */
+    private void swapTables(List<String> columns) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.execute("SET LOCAL lock_timeout = '" + swapLockTimeoutMs + "ms'");
+                    jdbcTemplate.execute("LOCK TABLE traces IN ACCESS EXCLUSIVE MODE");
+                    while (replayChanges(columns) > 0) {
+                        // Nothing can write any more, so this ends
+                    }
+
+                    // Triggers of traces (e.g. the search vector) move to the new table
+                    List<String> triggers = jdbcTemplate.queryForList(
+                            "SELECT pg_get_triggerdef(oid) FROM pg_trigger WHERE tgrelid = 'traces'::regclass " +
+                                    "AND NOT tgisinternal AND tgname NOT LIKE '" + LOG_TRIGGER + "%'",
+                            String.class);
+                    List<String> indexes = jdbcTemplate.queryForList(
+                            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                                    "WHERE i.indrelid = '" + SHADOW + "'::regclass AND c.relname LIKE '%" + INDEX_SUFFIX + "'",
+                            String.class);
+
+                    jdbcTemplate.execute("DROP TABLE traces");
+                    jdbcTemplate.execute("DROP TABLE " + CHANGES);
+                    jdbcTemplate.execute("DROP FUNCTION " + LOG_TRIGGER + "()");
+                    jdbcTemplate.execute("ALTER TABLE " + SHADOW + " RENAME TO traces");
+                    jdbcTemplate.execute("ALTER TABLE traces RENAME CONSTRAINT " + SHADOW + "_pkey TO traces_pkey");
+                    for (String index : indexes) {
+                        jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO "
+                                + index.substring(0, index.length() - INDEX_SUFFIX.length()));
+                    }
+                    triggers.forEach(jdbcTemplate::execute);
+                });
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= SWAP_ATTEMPTS) {
+                    throw e;
+                }
+                System.err.println("⚠️ Could not swap in the partitioned traces table (" + e.getMessage() + "), retrying...");
+                pause();
+                replayChanges(columns);
+            }
+        }
+    }
+
+    private void pause() {
+        if (migrationPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(migrationPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Migration interrupted");
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        List<Partition> existing = listPartitions();
+        LocalDate last = LocalDate.now().plusDays((long) premake * (isWeekly() ? 7 : 1));
+        for (LocalDate day = periodStart(LocalDate.now()); !day.isAfter(last); day = nextPeriod(day)) {
+            LocalDateTime from = day.atStartOfDay();
+            LocalDateTime to = nextPeriod(day).atStartOfDay();
+            boolean covered = existing.stream().anyMatch(p -> p.from().isBefore(to) && p.to().isAfter(from));
+            if (!covered) {
+                createPartition("traces", day);
+            }
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        for (Partition partition : listPartitions()) {
+            if (!partition.to().isAfter(cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE traces DETACH PARTITION " + partition.name());
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                System.out.println("🧹 Dropped expired trace partition " + partition.name());
+            }
+        }
+        // Old rows that arrived late sit in the default partition
+        deleteInChunks(DEFAULT_PARTITION, null, cutoff);
+        traceRollupService.forget(null, cutoff);
+    }
+
+    /**
+     * Projects may keep traces for less time than the global retention. Their
+     * rows cannot go with a whole partition, so they are deleted in chunks,
+     * scoped by created_at so only the old partitions are touched.
+     */
+    private void applyProjectRetention() {
+        for (Project project : projectRepository.findByRetentionDaysIsNotNull()) {
+            int days = project.getRetentionDays();
+            if (days <= 0 || (retentionDays > 0 && days >= retentionDays)) {
+                continue;
+            }
+            LocalDateTime cutoff = LocalDate.now().minusDays(days).atStartOfDay();
+            long deleted = deleteInChunks("traces", project.getId(), cutoff);
+            traceRollupService.forget(project.getId(), cutoff);
+            if (deleted > 0) {
+                System.out.println("🧹 Deleted " + deleted + " expired traces of project " + project.getId());
+            }
+        }
+    }
+
+    private long deleteInChunks(String table, String projectId, LocalDateTime cutoff) {
+        String where = projectId != null ? "project_id = ? AND created_at < ?" : "created_at < ?";
+        String sql = "DELETE FROM " + table + " WHERE (id, created_at) IN " +
+                "(SELECT id, created_at FROM " + table + " WHERE " + where + " LIMIT ?)";
+        long total = 0;
+        int deleted;
+        do {
+            deleted = projectId != null
+                    ? jdbcTemplate.update(sql, projectId, cutoff, deleteChunkSize)
+                    : jdbcTemplate.update(sql, cutoff, deleteChunkSize);
+            total += deleted;
+        } while (deleted == deleteChunkSize);
+        return total;
+    }
+
+    private void createPartition(String parent, LocalDate day) {
+        String name = "traces_p" + day.format(NAME_FORMAT);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + parent + " FOR VALUES FROM ('"
+                + day.atStartOfDay().format(BOUND_FORMAT) + "') TO ('"
+                + nextPeriod(day).atStartOfDay().format(BOUND_FORMAT) + "')");
+    }
+
+    /**
+     * Range partitions of traces, oldest first. The default partition is left out.
+     */
+    private List<Partition> listPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'traces'::regclass",
+                rs -> {
+                    Matcher matcher = BOUNDS.matcher(rs.getString(2));
+                    if (matcher.find()) {
+                        partitions.add(new Partition(
+                                rs.getString(1),
+                                LocalDateTime.parse(matcher.group(1), BOUND_FORMAT),
+                                LocalDateTime.parse(matcher.group(2), BOUND_FORMAT)));
+                    }
+                });
+        partitions.sort((a, b) -> a.from().compareTo(b.from()));
+        return partitions;
+    }
+
+    private boolean isWeekly() {
+        return "weekly".equalsIgnoreCase(interval);
+    }
+
+    private LocalDate periodStart(LocalDate day) {
+        return isWeekly() ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : day;
+    }
+
+    private LocalDate nextPeriod(LocalDate start) {
+        return isWeekly() ? start.plusWeeks(1) : start.plusDays(1);
+    }
+}
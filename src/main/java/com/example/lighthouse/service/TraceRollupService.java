@@ -0,0 +1,559 @@
+// src/main/java/com/example/lighthouse/service/TraceRollupService.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.Model.TraceRollup;
+import com.example.lighthouse.repository.TraceRollupRepository;
+import com.example.lighthouse.repository.TraceRollupRepositoryCustom.BackfillProgress;
+import com.example.lighthouse.repository.TraceRollupRepositoryCustom.LatencyGroup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains per-project, per-provider rollups by minute and by hour. Every
+ * stored or sampled-out trace is added to in-memory buckets that are upserted
+ * into trace_rollups every few seconds, so /stats reads a few hundred rollup
+ * rows instead of scanning every trace. Each bucket also carries a
+ * LatencyHistogram, so latency percentiles can be merged over any window.
+ *
+ * Traces that existed before the rollups are added in the background, one
+ * hour of traces at a time, and rollups are deleted along with the traces
+ * that retention removes.
+ */
+@Service
+@DependsOn("tracePartitionManager") // backfill reads the final traces table
+public class TraceRollupService {
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+    private static final Map<String, Duration> TIMESERIES_BUCKETS = Map.of(
+            "1m", Duration.ofMinutes(1),
+            "5m", Duration.ofMinutes(5),
+            "1h", Duration.ofHours(1),
+            "1d", Duration.ofDays(1)
+    );
+
+    @Autowired
+    private TraceRollupRepository traceRollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Minute rollups are only kept this long; hour rollups are kept for good
+    @Value("${lighthouse.rollups.minute-retention-days:7}")
+    private int minuteRetentionDays;
+
+    // Scores below this count towards the low-confidence rate
+    @Value("${lighthouse.rollups.low-confidence-below:50}")
+    private double lowConfidenceBelow;
+
+    @Value("${lighthouse.rollups.max-timeseries-points:2000}")
+    private int maxTimeseriesPoints;
+
+    // Window of /stats when no start is given, so it never reads every hour bucket
+    @Value("${lighthouse.rollups.stats-default-days:30}")
+    private int statsDefaultDays;
+
+    private final ConcurrentHashMap<RollupKey, Accumulator> pending = new ConcurrentHashMap<>();
+
+    // While a backfill runs, traces created in [backfillClaimed, backfillCutoff)
+    // are left to it rather than counted as they are recorded
+    private volatile LocalDateTime backfillCutoff;
+    private volatile LocalDateTime backfillClaimed;
+
+    private record RollupKey(String projectId, String provider, String granularity, LocalDateTime bucketStart) {}
+
+    private static final class Accumulator {
+        long traceCount;
+        double costUsd;
+        long tokensUsed;
+        long latencyMsSum;
+        Integer latencyMsMin;
+        Integer latencyMsMax;
+        long scoredCount;
+        long lowConfidenceCount;
+        final LatencyHistogram latencyHistogram = new LatencyHistogram();
+
+        void add(double cost, long tokens, Integer latencyMs, int scored, int lowConfidence) {
+            add(1, cost, tokens, latencyMs, scored, lowConfidence);
+        }
+
+        // count traces that share the same latency, with summed cost and tokens
+        void add(long count, double cost, long tokens, Integer latencyMs, long scored, long lowConfidence) {
+            traceCount += count;
+            scoredCount += scored;
+            lowConfidenceCount += lowConfidence;
+            costUsd += cost;
+            tokensUsed += tokens;
+            if (latencyMs != null) {
+                latencyMsSum += (long) latencyMs * count;
+                latencyMsMin = latencyMsMin == null ? latencyMs : Math.min(latencyMsMin, latencyMs);
+                latencyMsMax = latencyMsMax == null ? latencyMs : Math.max(latencyMsMax, latencyMs);
+                latencyHistogram.record(latencyMs, count);
+            }
+        }
+
+        void merge(Accumulator other) {
+            traceCount += other.traceCount;
+            costUsd += other.costUsd;
+            tokensUsed += other.tokensUsed;
+            latencyMsSum += other.latencyMsSum;
+            scoredCount += other.scoredCount;
+            lowConfidenceCount += other.lowConfidenceCount;
+            if (other.latencyMsMin != null) {
+                latencyMsMin = latencyMsMin == null ? other.latencyMsMin : Math.min(latencyMsMin, other.latencyMsMin);
+            }
+            if (other.latencyMsMax != null) {
+                latencyMsMax = latencyMsMax == null ? other.latencyMsMax : Math.max(latencyMsMax, other.latencyMsMax);
+            }
+            latencyHistogram.merge(other.latencyHistogram);
+        }
+
+        void merge(TraceRollup stored) {
+            Accumulator other = new Accumulator();
+            other.traceCount = stored.getTraceCount();
+            other.costUsd = stored.getCostUsd();
+            other.tokensUsed = stored.getTokensUsed();
+            other.latencyMsSum = stored.getLatencyMsSum();
+            other.latencyMsMin = stored.getLatencyMsMin();
+            other.latencyMsMax = stored.getLatencyMsMax();
+            other.scoredCount = stored.getScoredCount();
+            other.lowConfidenceCount = stored.getLowConfidenceCount();
+            if (stored.getLatencyHistogram() != null) {
+                other.latencyHistogram.merge(LatencyHistogram.fromBytes(stored.getLatencyHistogram()));
+            }
+            merge(other);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            traceRollupRepository.createBackfillTable();
+            BackfillProgress progress = traceRollupRepository.findBackfillProgress();
+            if (progress == null) {
+                boolean empty = traceRollupRepository.count() == 0;
+                // Rollups written before latency histograms existed are rebuilt from scratch
+                boolean rebuild = !empty && !traceRollupRepository.existsByLatencyHistogramIsNotNull();
+                if (!empty && !rebuild) {
+                    return;
+                }
+                // Nothing has been recorded yet, so every trace so far is older than this
+                LocalDateTime cutoff = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (rebuild) {
+                        traceRollupRepository.deleteAllInBatch();
+                    }
+                    traceRollupRepository.startBackfill(cutoff);
+                });
+                progress = new BackfillProgress(cutoff, null);
+            }
+            backfillClaimed = progress.doneUntil() != null ? progress.doneUntil() : EARLIEST;
+            backfillCutoff = progress.cutoff();
+            BackfillProgress started = progress;
+            Thread.ofVirtual().name("trace-rollup-backfill").start(() -> backfill(started));
+        } catch (Exception e) {
+            System.err.println("❌ Trace rollup backfill failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add the traces created before the cutoff to the rollups, one hour at a
+     * time, skipping hours without traces. Each hour is written together with
+     * the progress, so a restart carries on after the last finished hour.
+     */
+    private void backfill(BackfillProgress progress) {
+        LocalDateTime cutoff = progress.cutoff();
+        LocalDateTime position = progress.doneUntil() != null ? progress.doneUntil() : EARLIEST;
+        long traces = 0;
+        try {
+            while (backfillCutoff != null) {
+                LocalDateTime next = traceRollupRepository.findNextTraceTime(position, cutoff);
+                if (next == null) {
+                    break;
+                }
+                LocalDateTime from = next.truncatedTo(ChronoUnit.HOURS);
+                LocalDateTime to = from.plusHours(1).isBefore(cutoff) ? from.plusHours(1) : cutoff;
+                // Traces of this hour recorded from here on are counted as usual
+                backfillClaimed = to;
+
+                Map<RollupKey, Accumulator> chunk = new HashMap<>();
+                for (LatencyGroup group : traceRollupRepository.findLatencyGroups(from, to, lowConfidenceBelow)) {
+                    for (RollupKey key : keysFor(group.projectId(), group.provider(), group.minute())) {
+                        chunk.computeIfAbsent(key, k -> new Accumulator()).add(group.traceCount(), group.costUsd(),
+                                group.tokensUsed(), group.latencyMs(), group.scoredCount(), group.lowConfidenceCount());
+                    }
+                    traces += group.traceCount();
+                }
+                List<TraceRollup> deltas = toDeltas(chunk);
+                transactionTemplate.executeWithoutResult(status -> {
+                    write(deltas);
+                    traceRollupRepository.saveBackfillPosition(to);
+                });
+                position = to;
+            }
+            if (backfillCutoff != null) {
+                traceRollupRepository.finishBackfill();
+                backfillCutoff = null;
+                System.out.println("✅ Backfilled trace rollups from " + traces + " existing traces");
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Trace rollup backfill stopped, resumed on next start: " + e.getMessage());
+        }
+    }
+
+    private boolean leftToBackfill(LocalDateTime createdAt) {
+        LocalDateTime cutoff = backfillCutoff;
+        LocalDateTime claimed = backfillClaimed;
+        return cutoff != null && createdAt.isBefore(cutoff) && !createdAt.isBefore(claimed);
+    }
+
+    /**
+     * Drop the rollups of traces that retention has deleted: buckets before
+     * the cutoff, of one project or of all when projectId is null.
+     */
+    public void forget(String projectId, LocalDateTime cutoff) {
+        pending.keySet().removeIf(key -> key.bucketStart().isBefore(cutoff)
+                && (projectId == null || projectId.equals(key.projectId())));
+        int deleted = projectId != null
+                ? traceRollupRepository.deleteByProjectIdBefore(projectId, cutoff)
+                : traceRollupRepository.deleteBefore(cutoff);
+        if (deleted > 0) {
+            System.out.println("🧹 Deleted " + deleted + " rollups of expired traces");
+        }
+    }
+
+    /**
+     * Forget everything not flushed yet and stop a running backfill, after
+     * all traces and rollups have been deleted.
+     */
+    public void clear() {
+        backfillCutoff = null;
+        pending.clear();
+        traceRollupRepository.finishBackfill();
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Count a trace that has been committed.
+     */
+    public void record(Trace trace) {
+        record(
+                trace.getProject() != null ? trace.getProject().getId() : null,
+                trace.getProvider(),
+                trace.getCreatedAt() != null ? trace.getCreatedAt() : LocalDateTime.now(),
+                trace.getCostUsd() != null ? trace.getCostUsd() : 0.0,
+                trace.getTokensUsed() != null ? trace.getTokensUsed() : 0,
+                trace.getLatencyMs(),
+                trace.getConfidenceScore()
+        );
+    }
+
+    public void record(String projectId, String provider, LocalDateTime createdAt,
+                       double costUsd, long tokensUsed, Integer latencyMs, Double confidenceScore) {
+        if (leftToBackfill(createdAt)) {
+            return;
+        }
+        int scored = confidenceScore != null ? 1 : 0;
+        int lowConfidence = isLowConfidence(confidenceScore) ? 1 : 0;
+        for (RollupKey key : keysFor(projectId, provider, createdAt)) {
+            // compute() keeps the update atomic with the flusher's remove()
+            pending.compute(key, (k, accumulator) -> {
+                Accumulator a = accumulator != null ? accumulator : new Accumulator();
+                a.add(costUsd, tokensUsed, latencyMs, scored, lowConfidence);
+                return a;
+            });
+        }
+    }
+
+    /**
+     * Account for a confidence score set after the trace was recorded, e.g. by
+     * a hallucination check. previousScore is the score it was recorded with.
+     */
+    public void recordScore(Trace trace, Double previousScore, Double newScore) {
+        int scored = (newScore != null ? 1 : 0) - (previousScore != null ? 1 : 0);
+        int lowConfidence = (isLowConfidence(newScore) ? 1 : 0) - (isLowConfidence(previousScore) ? 1 : 0);
+        if (scored == 0 && lowConfidence == 0) {
+            return;
+        }
+        String projectId = trace.getProject() != null ? trace.getProject().getId() : null;
+        LocalDateTime createdAt = trace.getCreatedAt() != null ? trace.getCreatedAt() : LocalDateTime.now();
+        if (leftToBackfill(createdAt)) {
+            return; // the backfill reads the current score
+        }
+        for (RollupKey key : keysFor(projectId, trace.getProvider(), createdAt)) {
+            pending.compute(key, (k, accumulator) -> {
+                Accumulator a = accumulator != null ? accumulator : new Accumulator();
+                a.scoredCount += scored;
+                a.lowConfidenceCount += lowConfidence;
+                return a;
+            });
+        }
+    }
+
+    private boolean isLowConfidence(Double confidenceScore) {
+        return confidenceScore != null && confidenceScore < lowConfidenceBelow;
+    }
+
+    private static List<RollupKey> keysFor(String projectId, String provider, LocalDateTime createdAt) {
+        String project = projectId != null ? projectId : "";
+        String providerName = provider != null ? provider : "unknown";
+        return List.of(
+                new RollupKey(project, providerName, TraceRollup.MINUTE, createdAt.truncatedTo(ChronoUnit.MINUTES)),
+                new RollupKey(project, providerName, TraceRollup.HOUR, createdAt.truncatedTo(ChronoUnit.HOURS))
+        );
+    }
+
+    /**
+     * Totals over [from, to) for one project, or all projects when projectId
+     * is null; without a from, over the last statsDefaultDays days. Minute
+     * rollups are used while they still cover the window, hour rollups
+     * otherwise. Counts not flushed yet are included.
+     */
+    public Map<String, Object> getTotals(String projectId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now().minusDays(statsDefaultDays);
+        LocalDateTime end = to != null ? to : LATEST;
+        String granularity = !start.isBefore(LocalDateTime.now().minusDays(minuteRetentionDays))
+                ? TraceRollup.MINUTE : TraceRollup.HOUR;
+        // Whole buckets only: a bucket counts if it starts inside the window
+        start = TraceRollup.MINUTE.equals(granularity)
+                ? start.truncatedTo(ChronoUnit.MINUTES) : start.truncatedTo(ChronoUnit.HOURS);
+
+        TraceRollupRepository.RollupTotals stored = projectId != null
+                ? traceRollupRepository.getTotalsByProjectId(projectId, granularity, start, end)
+                : traceRollupRepository.getTotals(granularity, start, end);
+
+        List<byte[]> histograms = projectId != null
+                ? traceRollupRepository.findHistogramsByProjectId(projectId, granularity, start, end)
+                : traceRollupRepository.findHistograms(granularity, start, end);
+
+        Accumulator totals = new Accumulator();
+        for (byte[] bytes : histograms) {
+            totals.latencyHistogram.merge(LatencyHistogram.fromBytes(bytes));
+        }
+        if (stored != null && stored.getTraceCount() != null) {
+            totals.traceCount = stored.getTraceCount();
+            totals.costUsd = stored.getCostUsd() != null ? stored.getCostUsd() : 0.0;
+            totals.tokensUsed = stored.getTokensUsed() != null ? stored.getTokensUsed() : 0L;
+            totals.latencyMsSum = stored.getLatencyMsSum() != null ? stored.getLatencyMsSum() : 0L;
+            totals.latencyMsMin = stored.getLatencyMsMin();
+            totals.latencyMsMax = stored.getLatencyMsMax();
+            totals.scoredCount = stored.getScoredCount() != null ? stored.getScoredCount() : 0L;
+            totals.lowConfidenceCount = stored.getLowConfidenceCount() != null ? stored.getLowConfidenceCount() : 0L;
+        }
+
+        for (RollupKey key : pending.keySet()) {
+            if (key.granularity().equals(granularity)
+                    && (projectId == null || projectId.equals(key.projectId()))
+                    && !key.bucketStart().isBefore(start) && key.bucketStart().isBefore(end)) {
+                // Read under the same per-key lock the writers use
+                pending.computeIfPresent(key, (k, accumulator) -> {
+                    totals.merge(accumulator);
+                    return accumulator;
+                });
+            }
+        }
+
+        return summarize(totals);
+    }
+
+    /**
+     * One point per bucket of the given size over [from, to) for a project,
+     * empty buckets included. 1m and 5m points are built from minute rollups,
+     * 1h and 1d points from hour rollups.
+     */
+    public List<Map<String, Object>> getTimeseries(String projectId, String bucket, LocalDateTime from, LocalDateTime to) {
+        Duration step = parseBucket(bucket);
+        String granularity = step.compareTo(Duration.ofHours(1)) < 0 ? TraceRollup.MINUTE : TraceRollup.HOUR;
+        if (TraceRollup.MINUTE.equals(granularity) && from.isBefore(LocalDateTime.now().minusDays(minuteRetentionDays))) {
+            throw new IllegalArgumentException(bucket + " buckets are only kept for the last " + minuteRetentionDays + " days");
+        }
+        LocalDateTime start = bucketStart(from, step);
+        long points = (Duration.between(start, to).toMinutes() + step.toMinutes() - 1) / step.toMinutes();
+        if (points > maxTimeseriesPoints) {
+            throw new IllegalArgumentException("Range too large for " + bucket + " buckets (max " + maxTimeseriesPoints + " points)");
+        }
+
+        TreeMap<LocalDateTime, Accumulator> series = new TreeMap<>();
+        for (LocalDateTime time = start; time.isBefore(to); time = time.plus(step)) {
+            series.put(time, new Accumulator());
+        }
+        for (TraceRollup rollup : traceRollupRepository
+                .findByProjectIdAndGranularityAndBucketStartGreaterThanEqualAndBucketStartLessThan(projectId, granularity, start, to)) {
+            Accumulator point = series.get(bucketStart(rollup.getBucketStart(), step));
+            if (point != null) {
+                point.merge(rollup);
+            }
+        }
+        for (RollupKey key : pending.keySet()) {
+            if (key.granularity().equals(granularity) && projectId.equals(key.projectId())) {
+                Accumulator point = series.get(bucketStart(key.bucketStart(), step));
+                if (point != null) {
+                    pending.computeIfPresent(key, (k, accumulator) -> {
+                        point.merge(accumulator);
+                        return accumulator;
+                    });
+                }
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(series.size());
+        series.forEach((time, point) -> {
+            Map<String, Object> summary = summarize(point);
+            summary.put("time", time);
+            result.add(summary);
+        });
+        return result;
+    }
+
+    public static Duration parseBucket(String bucket) {
+        Duration step = TIMESERIES_BUCKETS.get(bucket);
+        if (step == null) {
+            throw new IllegalArgumentException("bucket must be one of 1m, 5m, 1h, 1d");
+        }
+        return step;
+    }
+
+    // Buckets are aligned to the start of the day, so 5m points fall on :00, :05, ...
+    private static LocalDateTime bucketStart(LocalDateTime time, Duration step) {
+        if (step.equals(Duration.ofDays(1))) {
+            return time.truncatedTo(ChronoUnit.DAYS);
+        }
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        long minutes = Duration.between(day, time).toMinutes();
+        return day.plusMinutes(minutes - minutes % step.toMinutes());
+    }
+
+    private Map<String, Object> summarize(Accumulator totals) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", totals.traceCount);
+        result.put("cost", totals.costUsd);
+        result.put("tokens", totals.tokensUsed);
+        result.put("averageLatency", totals.traceCount > 0 ? (double) totals.latencyMsSum / totals.traceCount : 0.0);
+        result.put("minLatency", totals.latencyMsMin);
+        result.put("maxLatency", totals.latencyMsMax);
+        Map<String, Object> percentiles = new HashMap<>();
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            percentiles.put(PERCENTILE_NAMES[i], totals.latencyHistogram.percentile(PERCENTILES[i]));
+        }
+        result.put("latencyPercentiles", percentiles);
+        result.put("scoredCount", totals.scoredCount);
+        result.put("lowConfidenceRate", totals.scoredCount > 0 ? (double) totals.lowConfidenceCount / totals.scoredCount : null);
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${lighthouse.rollups.flush-interval-ms:5000}")
+    public void flush() {
+        Map<RollupKey, Accumulator> drained = new HashMap<>();
+        for (RollupKey key : pending.keySet()) {
+            Accumulator accumulator = pending.remove(key);
+            if (accumulator != null) {
+                drained.put(key, accumulator);
+            }
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        List<TraceRollup> deltas = toDeltas(drained);
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(deltas));
+        } catch (Exception e) {
+            // Put the deltas back and try again on the next run
+            drained.forEach((key, accumulator) -> pending.merge(key, accumulator, (current, failed) -> {
+                current.merge(failed);
+                return current;
+            }));
+            System.err.println("❌ Failed to flush trace rollups: " + e.getMessage());
+        }
+    }
+
+    private static List<TraceRollup> toDeltas(Map<RollupKey, Accumulator> accumulators) {
+        List<TraceRollup> deltas = new ArrayList<>(accumulators.size());
+        accumulators.forEach((key, accumulator) -> {
+            TraceRollup delta = new TraceRollup();
+            delta.setProjectId(key.projectId());
+            delta.setProvider(key.provider());
+            delta.setGranularity(key.granularity());
+            delta.setBucketStart(key.bucketStart());
+            delta.setTraceCount(accumulator.traceCount);
+            delta.setCostUsd(accumulator.costUsd);
+            delta.setTokensUsed(accumulator.tokensUsed);
+            delta.setLatencyMsSum(accumulator.latencyMsSum);
+            delta.setLatencyMsMin(accumulator.latencyMsMin);
+            delta.setLatencyMsMax(accumulator.latencyMsMax);
+            delta.setScoredCount(accumulator.scoredCount);
+            delta.setLowConfidenceCount(accumulator.lowConfidenceCount);
+            if (!accumulator.latencyHistogram.isEmpty()) {
+                delta.setLatencyHistogram(accumulator.latencyHistogram.toBytes());
+            }
+            deltas.add(delta);
+        });
+        return deltas;
+    }
+
+    // Must run in a transaction
+    private void write(List<TraceRollup> deltas) {
+        traceRollupRepository.addAll(deltas);
+        mergeHistograms(deltas);
+    }
+
+    /**
+     * Merge the deltas' histograms into the stored ones. The rows are locked
+     * by the upsert that just ran, so the read-merge-write is not racy.
+     */
+    private void mergeHistograms(List<TraceRollup> deltas) {
+        List<TraceRollup> withHistograms = deltas.stream().filter(d -> d.getLatencyHistogram() != null).toList();
+        if (withHistograms.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, byte[]> stored = new HashMap<>();
+        for (TraceRollup rollup : traceRollupRepository.findHistograms(withHistograms)) {
+            stored.put(keyOf(rollup), rollup.getLatencyHistogram());
+        }
+        for (TraceRollup delta : withHistograms) {
+            byte[] existing = stored.get(keyOf(delta));
+            if (existing != null) {
+                LatencyHistogram merged = LatencyHistogram.fromBytes(existing);
+                merged.merge(LatencyHistogram.fromBytes(delta.getLatencyHistogram()));
+                delta.setLatencyHistogram(merged.toBytes());
+            }
+        }
+        traceRollupRepository.updateHistograms(withHistograms);
+    }
+
+    private static RollupKey keyOf(TraceRollup rollup) {
+        return new RollupKey(rollup.getProjectId(), rollup.getProvider(), rollup.getGranularity(), rollup.getBucketStart());
+    }
+
+    @Scheduled(cron = "${lighthouse.rollups.purge-cron:0 30 0 * * *}")
+    public void purgeMinuteRollups() {
+        int deleted = traceRollupRepository.deleteOlderThan(
+                TraceRollup.MINUTE, LocalDateTime.now().minusDays(minuteRetentionDays));
+        if (deleted > 0) {
+            System.out.println("🧹 Purged " + deleted + " minute rollups");
+        }
+    }
+}
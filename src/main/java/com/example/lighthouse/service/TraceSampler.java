@@ -0,0 +1,208 @@
+// src/main/java/com/example/lighthouse/service/TraceSampler.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.dto.TraceIngestRequest;
+import com.example.lighthouse.repository.SampledTraceCounterRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Head-based sampling of SDK traces. A project with a sampleRate stores only
+ * that share of ordinary traces in full; errors, low-confidence traces and
+ * traces that asked for a hallucination check are always kept. Dropped traces
+ * are only added to hourly counters, flushed to sampled_trace_counters in the
+ * background, so totals in /stats still include them.
+ */
+@Service
+public class TraceSampler {
+
+    @Autowired
+    private SampledTraceCounterRepository sampledTraceCounterRepository;
+
+    @Autowired
+    private TraceRollupService traceRollupService;
+
+    @Autowired
+    private CostLedgerService costLedgerService;
+
+    @Autowired
+    private IngestIdempotencyService idempotencyService;
+
+    @Value("${lighthouse.sdk.sampling.keep-below-confidence:70}")
+    private double defaultKeepBelowConfidence;
+
+    private final ConcurrentHashMap<CounterKey, Counter> pending = new ConcurrentHashMap<>();
+
+    private record CounterKey(String projectId, String provider, LocalDateTime bucketStart) {}
+
+    private static final class Counter {
+        long traceCount;
+        long tokensUsed;
+        double costUsd;
+        long latencyMsSum;
+
+        void add(Counter other) {
+            traceCount += other.traceCount;
+            tokensUsed += other.tokensUsed;
+            costUsd += other.costUsd;
+            latencyMsSum += other.latencyMsSum;
+        }
+    }
+
+    /**
+     * Decide whether a validated trace, with its cost resolved by
+     * TraceIngestService.resolveCost, is stored. When it is not, it is counted
+     * and true is returned; the caller must not persist it. A dropped trace
+     * with an idempotency key is counted once: retries claim the same key.
+     */
+    public boolean sampleOut(Project project, TraceIngestRequest request) {
+        if (shouldKeep(project, request)) {
+            return false;
+        }
+        String idempotencyKey = request.getIdempotencyKey();
+        if (idempotencyKey != null && !idempotencyKey.isBlank()
+                && !idempotencyService.claimSampledOut(project.getId(), idempotencyKey)) {
+            return true;
+        }
+
+        CounterKey key = new CounterKey(
+                project.getId(),
+                request.getProvider(),
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+        );
+        // compute() keeps the update atomic with the flusher's remove()
+        pending.compute(key, (k, counter) -> {
+            Counter c = counter != null ? counter : new Counter();
+            c.traceCount++;
+            c.tokensUsed += request.getTokensUsed();
+            c.costUsd += request.getCostUsd();
+            c.latencyMsSum += request.getLatencyMs();
+            return c;
+        });
+        // Dropped traces still count towards the rollups behind /stats
+        traceRollupService.record(project.getId(), request.getProvider(), LocalDateTime.now(),
+                request.getCostUsd(), request.getTokensUsed(), request.getLatencyMs(), request.getConfidenceScore());
+        costLedgerService.record(project.getId(), request.getProvider(), request.getModel(), LocalDateTime.now(),
+                request.getCostUsd(), request.getTokensUsed());
+        return true;
+    }
+
+    private boolean shouldKeep(Project project, TraceIngestRequest request) {
+        Double sampleRate = project.getSampleRate();
+        if (sampleRate == null || sampleRate >= 1.0) {
+            return true;
+        }
+        if (request.isError()) {
+            return true;
+        }
+        String dbConnectionId = request.getDatabaseConnectionId();
+        if (dbConnectionId != null && !dbConnectionId.isEmpty()) {
+            return true;
+        }
+        double keepBelow = project.getSampleKeepBelowConfidence() != null
+                ? project.getSampleKeepBelowConfidence() : defaultKeepBelowConfidence;
+        if (request.getConfidenceScore() != null && request.getConfidenceScore() < keepBelow) {
+            return true;
+        }
+        if (sampleRate <= 0) {
+            return false;
+        }
+
+        // Retries carrying the same idempotency key get the same decision
+        String idempotencyKey = request.getIdempotencyKey();
+        double draw = idempotencyKey != null && !idempotencyKey.isBlank()
+                ? (mix(idempotencyKey.hashCode()) >>> 11) * 0x1.0p-53
+                : ThreadLocalRandom.current().nextDouble();
+        return draw < sampleRate;
+    }
+
+    /**
+     * Totals of sampled-out traces, including counts not flushed yet. Pass
+     * null for all projects.
+     */
+    public Map<String, Object> getTotals(String projectId) {
+        Long count = projectId != null
+                ? sampledTraceCounterRepository.getTotalCountByProjectId(projectId)
+                : sampledTraceCounterRepository.getTotalCount();
+        Double cost = projectId != null
+                ? sampledTraceCounterRepository.getTotalCostByProjectId(projectId)
+                : sampledTraceCounterRepository.getTotalCost();
+        Long latency = projectId != null
+                ? sampledTraceCounterRepository.getTotalLatencyByProjectId(projectId)
+                : sampledTraceCounterRepository.getTotalLatency();
+
+        Counter totals = new Counter();
+        totals.traceCount = count != null ? count : 0L;
+        totals.costUsd = cost != null ? cost : 0.0;
+        totals.latencyMsSum = latency != null ? latency : 0L;
+        for (CounterKey key : pending.keySet()) {
+            if (projectId == null || projectId.equals(key.projectId())) {
+                // Read under the same per-key lock the writers use
+                pending.computeIfPresent(key, (k, counter) -> {
+                    totals.add(counter);
+                    return counter;
+                });
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", totals.traceCount);
+        result.put("cost", totals.costUsd);
+        result.put("latencyMsSum", totals.latencyMsSum);
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${lighthouse.sdk.sampling.flush-interval-ms:10000}")
+    public void flush() {
+        for (CounterKey key : pending.keySet()) {
+            Counter counter = pending.remove(key);
+            if (counter == null) {
+                continue;
+            }
+            try {
+                sampledTraceCounterRepository.addCounts(
+                        UUID.randomUUID().toString(),
+                        key.projectId(),
+                        key.provider(),
+                        key.bucketStart(),
+                        counter.traceCount,
+                        counter.tokensUsed,
+                        counter.costUsd,
+                        counter.latencyMsSum
+                );
+            } catch (Exception e) {
+                // Put the counts back and try again on the next run
+                pending.merge(key, counter, (current, failed) -> {
+                    current.add(failed);
+                    return current;
+                });
+                System.err.println("❌ Failed to flush sampled trace counters: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    // SplitMix64 finalizer, spreads String.hashCode over the full long range
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,110 @@
+// src/main/java/com/example/lighthouse/service/TraceSearchIndex.java
+package com.example.lighthouse.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Sets up full-text search on traces: a tsvector column over prompt and
+ * response, kept current by a trigger on insert and on text updates, and a
+ * GIN index on it (one per partition). Very long texts are cut before
+ * indexing so a single trace cannot exceed the tsvector size limit. Cold
+ * traces (see TraceColdStorage) keep the vector built from their full text,
+ * and shared bodies (see TraceBodyStore) are read from trace_bodies.
+ *
+ * Startup only adds the column and the trigger. Existing rows are filled in
+ * small chunks on a background thread, after which the index is built
+ * concurrently, so neither blocks boot nor writes.
+ */
+@Service
+@DependsOn("tracePartitionManager") // the column must be added to the final traces table
+public class TraceSearchIndex {
+
+    // Characters of prompt and of response that are indexed
+    private static final int MAX_INDEXED_CHARS = 100000;
+
+    // Texts shared through trace_bodies are indexed in full, not just their preview
+    private static final String VECTOR_EXPRESSION = "to_tsvector('english'::regconfig, " +
+            "left(coalesce((SELECT body FROM trace_bodies WHERE hash = %1$s.prompt_hash), %1$s.prompt, ''), " +
+            MAX_INDEXED_CHARS + ") || ' ' || " +
+            "left(coalesce((SELECT body FROM trace_bodies WHERE hash = %1$s.response_hash), %1$s.response, ''), " +
+            MAX_INDEXED_CHARS + "))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TracePartitionManager tracePartitionManager;
+
+    @Value("${lighthouse.traces.backfill.batch-size:5000}")
+    private int backfillBatchSize;
+
+    @Value("${lighthouse.traces.search.enabled:true}")
+    private boolean enabled;
+
+    private volatile boolean available;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Without a default this only changes the catalog
+            jdbcTemplate.execute("ALTER TABLE traces ADD COLUMN IF NOT EXISTS search_vector tsvector");
+
+            jdbcTemplate.execute("CREATE OR REPLACE FUNCTION traces_search_vector_update() RETURNS trigger AS $$ " +
+                    "BEGIN " +
+                    "IF NEW.cold_body IS NULL THEN NEW.search_vector := " + VECTOR_EXPRESSION.formatted("NEW") + "; END IF; " +
+                    "RETURN NEW; " +
+                    "END $$ LANGUAGE plpgsql");
+            jdbcTemplate.execute("DROP TRIGGER IF EXISTS traces_search_vector_update ON traces");
+            jdbcTemplate.execute("CREATE TRIGGER traces_search_vector_update " +
+                    "BEFORE INSERT OR UPDATE OF prompt, response, prompt_hash, response_hash, cold_body ON traces " +
+                    "FOR EACH ROW EXECUTE FUNCTION traces_search_vector_update()");
+            available = true;
+            Thread.ofVirtual().name("trace-search-backfill").start(this::backfill);
+        } catch (Exception e) {
+            System.err.println("❌ Trace search unavailable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fill search_vector for rows written before the trigger existed, walking
+     * the primary key one chunk at a time, then build the index.
+     */
+    private void backfill() {
+        try {
+            String update = "UPDATE traces t SET search_vector = " + VECTOR_EXPRESSION.formatted("t") +
+                    " WHERE t.id > ? AND t.id <= ? AND t.search_vector IS NULL";
+            String after = "";
+            long filled = 0;
+            while (true) {
+                String last = jdbcTemplate.queryForObject(
+                        "SELECT max(id) FROM (SELECT id FROM traces WHERE id > ? ORDER BY id LIMIT ?) chunk",
+                        String.class, after, backfillBatchSize);
+                if (last == null) {
+                    break;
+                }
+                filled += jdbcTemplate.update(update, after, last);
+                after = last;
+            }
+            if (filled > 0) {
+                System.out.println("✅ Search vectors filled in for " + filled + " traces");
+            }
+            tracePartitionManager.createIndexConcurrently("idx_traces_search_vector", "USING GIN (search_vector)");
+        } catch (Exception e) {
+            System.err.println("❌ Trace search backfill failed, retried on next start: " + e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,406 @@
+// src/main/java/com/example/lighthouse/service/TraceSpool.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.Model.Trace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped local file that holds traces while the database
+ * is unavailable. Records are appended at the write position and consumed in
+ * order from the read position by TraceSpoolReplayer; once everything has been
+ * replayed both positions go back to the start of the file.
+ *
+ * Layout: a 32 byte header (magic, version, read position, write position)
+ * followed by records of [length][crc32][JSON payload].
+ */
+@Service
+public class TraceSpool {
+    private static final int MAGIC = 0x4C485350; // "LHSP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int READ_POS_OFFSET = 8;
+    private static final int WRITE_POS_OFFSET = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${lighthouse.ingest.spool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${lighthouse.ingest.spool.path:spool/traces.spool}")
+    private String path;
+
+    @Value("${lighthouse.ingest.spool.max-bytes:268435456}")
+    private long maxBytes;
+
+    // "always" forces every append to disk, "interval" on a timer, "never" leaves it to the OS
+    @Value("${lighthouse.ingest.spool.fsync:interval}")
+    private String fsyncPolicy;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long mappedBytes;
+    private int readPos;
+    private int writePos;
+    private int pendingRecords;
+    private boolean dirty;
+
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong crcMismatchCount = new AtomicLong();
+
+    /**
+     * Thrown when the traces do not fit in the remaining spool space.
+     */
+    public static class SpoolFullException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SpoolFullException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Traces read from the spool, plus the position to commit once they are
+     * saved. recordsThrough and readPosThrough hold, per trace, the record
+     * count and read position up to and including it.
+     */
+    public record SpoolBatch(List<Trace> traces, int records, int nextReadPos,
+                             int startPos, int[] recordsThrough, int[] readPosThrough) {
+
+        /**
+         * The part of this batch up to and including the first count traces,
+         * to commit when only those were saved.
+         */
+        public SpoolBatch upTo(int count) {
+            if (count >= traces.size()) {
+                return this;
+            }
+            if (count <= 0) {
+                return new SpoolBatch(List.of(), 0, startPos, startPos, new int[0], new int[0]);
+            }
+            return new SpoolBatch(traces.subList(0, count), recordsThrough[count - 1], readPosThrough[count - 1],
+                    startPos, recordsThrough, readPosThrough);
+        }
+    }
+
+    // Only what the insert path needs; the project is kept as its ID
+    private record SpooledTrace(
+            String id,
+            String projectId,
+            String prompt,
+            String response,
+            String hallucinationData,
+            Double confidenceScore,
+            String hallucinationStatus,
+            String databaseConnectionId,
+            String idempotencyKey,
+            Integer tokensUsed,
+            Double costUsd,
+            Integer latencyMs,
+            String provider,
+            LocalDateTime createdAt,
+            String model,
+            Integer timeToFirstTokenMs
+    ) {}
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        if (maxBytes > Integer.MAX_VALUE) {
+            maxBytes = Integer.MAX_VALUE;
+        }
+
+        try {
+            Path file = Paths.get(path).toAbsolutePath();
+            Files.createDirectories(file.getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // Never map less than an existing file holds, even if max-bytes was lowered
+            mappedBytes = Math.min(Integer.MAX_VALUE, Math.max(maxBytes, channel.size()));
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedBytes);
+            recover();
+            System.out.println("✅ Trace spool ready at " + file + " (" + pendingRecords + " traces to replay)");
+        } catch (IOException e) {
+            // Without a spool the database is the only write path, as before
+            enabled = false;
+            System.err.println("❌ Could not open trace spool at " + path + ": " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Append traces as one unit: either all fit or none are written.
+     */
+    public synchronized void append(List<Trace> traces) {
+        if (!enabled || channel == null) {
+            throw new SpoolFullException("Trace spool is disabled");
+        }
+
+        List<byte[]> payloads = new ArrayList<>(traces.size());
+        long needed = 0;
+        for (Trace trace : traces) {
+            byte[] payload = encode(trace);
+            payloads.add(payload);
+            needed += RECORD_HEADER_SIZE + payload.length;
+        }
+        if (writePos + needed > maxBytes) {
+            rejectedCount.addAndGet(traces.size());
+            throw new SpoolFullException("Trace spool is full (" + maxBytes + " bytes)");
+        }
+
+        CRC32 crc = new CRC32();
+        for (byte[] payload : payloads) {
+            crc.reset();
+            crc.update(payload);
+            buffer.putInt(writePos, payload.length);
+            buffer.putInt(writePos + 4, (int) crc.getValue());
+            buffer.put(writePos + RECORD_HEADER_SIZE, payload);
+            writePos += RECORD_HEADER_SIZE + payload.length;
+        }
+        // The header moves only after the records are in place
+        buffer.putLong(WRITE_POS_OFFSET, writePos);
+        pendingRecords += traces.size();
+        spooledCount.addAndGet(traces.size());
+        dirty = true;
+
+        if ("always".equalsIgnoreCase(fsyncPolicy)) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Read up to maxTraces from the read position without consuming them.
+     * Records whose checksum does not match are skipped and counted.
+     */
+    public synchronized SpoolBatch peek(int maxTraces) {
+        List<Trace> traces = new ArrayList<>();
+        List<int[]> ends = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        int records = 0;
+        int pos = readPos;
+        while (pos < writePos && records < maxTraces) {
+            int length = buffer.getInt(pos);
+            // Written so that a corrupt length cannot overflow the sum
+            if (length <= 0 || length > writePos - pos - RECORD_HEADER_SIZE) {
+                // The next record cannot be located, so the rest is lost
+                crcMismatchCount.incrementAndGet();
+                System.err.println("❌ Dropping the rest of the trace spool: bad record length at " + pos);
+                pos = writePos;
+                records++;
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + RECORD_HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            boolean intact = (int) crc.getValue() == buffer.getInt(pos + 4);
+            pos += RECORD_HEADER_SIZE + length;
+            records++;
+            if (!intact) {
+                crcMismatchCount.incrementAndGet();
+                System.err.println("❌ Dropping spooled trace with a checksum mismatch");
+                continue;
+            }
+            try {
+                traces.add(decode(payload));
+                ends.add(new int[] {records, pos});
+            } catch (IllegalStateException e) {
+                // Skip it rather than block the replay forever
+                System.err.println("❌ Dropping unreadable spooled trace: " + e.getMessage());
+            }
+        }
+        int[] recordsThrough = new int[ends.size()];
+        int[] readPosThrough = new int[ends.size()];
+        for (int i = 0; i < ends.size(); i++) {
+            recordsThrough[i] = ends.get(i)[0];
+            readPosThrough[i] = ends.get(i)[1];
+        }
+        return new SpoolBatch(traces, records, pos, readPos, recordsThrough, readPosThrough);
+    }
+
+    /**
+     * Mark a batch returned by {@link #peek} as saved.
+     */
+    public synchronized void commit(SpoolBatch batch) {
+        pendingRecords -= batch.records();
+        readPos = batch.nextReadPos();
+        if (readPos >= writePos) {
+            // Drained: start over at the beginning of the file
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+            pendingRecords = 0;
+            buffer.putLong(WRITE_POS_OFFSET, writePos);
+        }
+        buffer.putLong(READ_POS_OFFSET, readPos);
+        dirty = true;
+    }
+
+    public synchronized boolean isEmpty() {
+        return readPos >= writePos;
+    }
+
+    @Scheduled(fixedDelayString = "${lighthouse.ingest.spool.fsync-interval-ms:1000}")
+    public synchronized void forceIfDirty() {
+        if (dirty && channel != null && !"never".equalsIgnoreCase(fsyncPolicy)) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pendingTraces", pendingRecords);
+        stats.put("usedBytes", Math.max(0, writePos - HEADER_SIZE));
+        stats.put("maxBytes", maxBytes);
+        stats.put("fsync", fsyncPolicy);
+        stats.put("spooled", spooledCount.get());
+        stats.put("rejected", rejectedCount.get());
+        stats.put("crcMismatches", crcMismatchCount.get());
+        return stats;
+    }
+
+    /**
+     * Load the positions from the header and drop a torn record at the tail,
+     * e.g. one half written when the process died.
+     */
+    private void recover() {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putLong(READ_POS_OFFSET, HEADER_SIZE);
+            buffer.putLong(WRITE_POS_OFFSET, HEADER_SIZE);
+            buffer.force();
+        }
+
+        readPos = (int) buffer.getLong(READ_POS_OFFSET);
+        writePos = (int) buffer.getLong(WRITE_POS_OFFSET);
+        if (readPos < HEADER_SIZE || writePos > mappedBytes || readPos > writePos) {
+            System.err.println("⚠️ Trace spool header is inconsistent - discarding spooled traces");
+            readPos = HEADER_SIZE;
+            writePos = HEADER_SIZE;
+        }
+
+        CRC32 crc = new CRC32();
+        int pos = readPos;
+        pendingRecords = 0;
+        while (pos + RECORD_HEADER_SIZE <= writePos) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > writePos - pos - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + RECORD_HEADER_SIZE, payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != buffer.getInt(pos + 4)) {
+                break;
+            }
+            pos += RECORD_HEADER_SIZE + length;
+            pendingRecords++;
+        }
+        if (pos != writePos) {
+            System.err.println("⚠️ Trace spool has a damaged tail - keeping " + pendingRecords + " intact traces");
+            writePos = pos;
+        }
+
+        buffer.putLong(READ_POS_OFFSET, readPos);
+        buffer.putLong(WRITE_POS_OFFSET, writePos);
+    }
+
+    private byte[] encode(Trace trace) {
+        SpooledTrace spooled = new SpooledTrace(
+                trace.getId(),
+                trace.getProject() != null ? trace.getProject().getId() : null,
+                trace.getPrompt(),
+                trace.getResponse(),
+                trace.getHallucinationData(),
+                trace.getConfidenceScore(),
+                trace.getHallucinationStatus(),
+                trace.getDatabaseConnectionId(),
+                trace.getIdempotencyKey(),
+                trace.getTokensUsed(),
+                trace.getCostUsd(),
+                trace.getLatencyMs(),
+                trace.getProvider(),
+                trace.getCreatedAt(),
+                trace.getModel(),
+                trace.getTimeToFirstTokenMs()
+        );
+        try {
+            return objectMapper.writeValueAsBytes(spooled);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize trace " + trace.getId(), e);
+        }
+    }
+
+    private Trace decode(byte[] payload) {
+        SpooledTrace spooled;
+        try {
+            spooled = objectMapper.readValue(payload, SpooledTrace.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read spooled trace", e);
+        }
+
+        Trace trace = new Trace();
+        trace.setId(spooled.id());
+        if (spooled.projectId() != null) {
+            Project project = new Project();
+            project.setId(spooled.projectId());
+            trace.setProject(project);
+        }
+        trace.setPrompt(spooled.prompt());
+        trace.setResponse(spooled.response());
+        trace.setHallucinationData(spooled.hallucinationData());
+        trace.setConfidenceScore(spooled.confidenceScore());
+        trace.setHallucinationStatus(spooled.hallucinationStatus());
+        trace.setDatabaseConnectionId(spooled.databaseConnectionId());
+        trace.setIdempotencyKey(spooled.idempotencyKey());
+        trace.setTokensUsed(spooled.tokensUsed());
+        trace.setCostUsd(spooled.costUsd());
+        trace.setLatencyMs(spooled.latencyMs());
+        trace.setProvider(spooled.provider());
+        trace.setCreatedAt(spooled.createdAt());
+        trace.setModel(spooled.model());
+        trace.setTimeToFirstTokenMs(spooled.timeToFirstTokenMs());
+        return trace;
+    }
+}
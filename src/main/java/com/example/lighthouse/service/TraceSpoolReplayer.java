@@ -0,0 +1,160 @@
+// src/main/java/com/example/lighthouse/service/TraceSpoolReplayer.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the trace spool into the database, oldest first, on a single
+ * background thread. Replay is throttled to lighthouse.ingest.spool.replay-rate
+ * traces per second so a recovering database is not flooded, and backs off
+ * while the database is still unavailable.
+ */
+@Service
+public class TraceSpoolReplayer {
+
+    @Autowired
+    private TraceSpool traceSpool;
+
+    @Autowired
+    private TraceIngestService traceIngestService;
+
+    @Autowired
+    private IngestIdempotencyService idempotencyService;
+
+    @Value("${lighthouse.ingest.spool.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${lighthouse.ingest.spool.replay-rate:2000}")
+    private double replayRate;
+
+    @Value("${lighthouse.ingest.spool.db-retry-after-ms:5000}")
+    private long retryAfterMs;
+
+    @Value("${lighthouse.ingest.spool.idle-poll-ms:1000}")
+    private long idlePollMs;
+
+    private Thread replayer;
+    private volatile boolean running;
+
+    private final AtomicLong replayedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!traceSpool.isEnabled()) {
+            return;
+        }
+        running = true;
+        replayer = new Thread(this::runReplayer, "trace-spool-replayer");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // Whatever is left stays in the spool for the next start
+        running = false;
+        if (replayer != null) {
+            replayer.interrupt();
+            replayer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("replayed", replayedCount.get());
+        stats.put("dropped", droppedCount.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("replayRate", replayRate);
+        return stats;
+    }
+
+    private void runReplayer() {
+        while (running) {
+            try {
+                if (traceSpool.isEmpty()) {
+                    Thread.sleep(idlePollMs);
+                    continue;
+                }
+
+                TraceSpool.SpoolBatch batch = traceSpool.peek(replayBatchSize);
+                ReplayResult result = replay(batch.traces());
+                // Traces saved before the database dropped out are not replayed again
+                traceSpool.commit(batch.upTo(result.consumed()));
+                replayedCount.addAndGet(result.saved());
+                if (result.unavailable()) {
+                    failedAttempts.incrementAndGet();
+                    Thread.sleep(retryAfterMs);
+                    continue;
+                }
+                traceIngestService.markDatabaseAvailable();
+
+                // Throttle to the configured replay rate
+                long pauseMs = (long) (batch.records() * 1000 / replayRate);
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Outcome of one replay: how many leading traces of the batch are done
+     * with (saved or dropped), how many of them were saved, and whether the
+     * database became unavailable before the rest could be written.
+     */
+    private record ReplayResult(int consumed, int saved, boolean unavailable) {}
+
+    /**
+     * Save a batch in one transaction. Traces the database rejects for good
+     * are dropped one by one so they cannot hold up the rest of the spool.
+     */
+    private ReplayResult replay(List<Trace> traces) {
+        if (traces.isEmpty()) {
+            return new ReplayResult(0, 0, false);
+        }
+        try {
+            traceIngestService.insertBatch(traces);
+            return new ReplayResult(traces.size(), traces.size(), false);
+        } catch (RuntimeException e) {
+            if (TraceIngestService.isDatabaseUnavailable(e)) {
+                return new ReplayResult(0, 0, true);
+            }
+            System.err.println("⚠️ Spooled batch rejected, replaying traces individually: " + e.getMessage());
+        }
+
+        int saved = 0;
+        for (int i = 0; i < traces.size(); i++) {
+            Trace trace = traces.get(i);
+            try {
+                traceIngestService.insertBatch(List.of(trace));
+                saved++;
+            } catch (RuntimeException e) {
+                if (TraceIngestService.isDatabaseUnavailable(e)) {
+                    return new ReplayResult(i, saved, true);
+                }
+                droppedCount.incrementAndGet();
+                System.err.println("❌ Dropping spooled trace " + trace.getId() + ": " + e.getMessage());
+                if (trace.getIdempotencyKey() != null) {
+                    idempotencyService.release(trace.getProject().getId(), trace.getIdempotencyKey(), trace.getId());
+                }
+            }
+        }
+        return new ReplayResult(traces.size(), saved, false);
+    }
+}
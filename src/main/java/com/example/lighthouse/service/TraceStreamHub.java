@@ -0,0 +1,186 @@
+// src/main/java/com/example/lighthouse/service/TraceStreamHub.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import com.example.lighthouse.dto.TraceSummary;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process fan-out of new traces and hallucination score updates to
+ * Server-Sent Events subscribers. Publishing never blocks: every subscriber
+ * has a bounded buffer drained by its own virtual thread, and when a slow
+ * client lets the buffer fill up the oldest events are dropped and the client
+ * is told how many it missed (a "dropped" event) so it can refetch.
+ */
+@Service
+public class TraceStreamHub {
+
+    @Value("${lighthouse.traces.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${lighthouse.traces.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    // Clients (EventSource) reconnect on their own when the stream ends
+    @Value("${lighthouse.traces.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${lighthouse.traces.stream.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    @Value("${lighthouse.traces.preview-length:200}")
+    private int previewLength;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    private record Event(String name, Object data) {}
+
+    private final class Subscriber {
+        final String projectId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Event> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicLong missed = new AtomicLong();
+        volatile boolean closed;
+        Thread sender;
+
+        Subscriber(String projectId, SseEmitter emitter) {
+            this.projectId = projectId;
+            this.emitter = emitter;
+        }
+
+        boolean wants(String traceProjectId) {
+            return projectId == null || projectId.equals(traceProjectId);
+        }
+
+        void offer(Event event) {
+            // Drop the oldest events rather than block the publisher
+            while (!buffer.offer(event)) {
+                if (buffer.poll() != null) {
+                    missed.incrementAndGet();
+                    droppedCount.increment();
+                }
+            }
+        }
+
+        void run() {
+            try {
+                while (!closed) {
+                    Event event = buffer.poll(heartbeatMs, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                        continue;
+                    }
+                    long lost = missed.getAndSet(0);
+                    if (lost > 0) {
+                        emitter.send(SseEmitter.event().name("dropped").data(Map.of("count", lost)));
+                    }
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                // Client went away; the emitter callbacks clean up
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            if (sender != null && sender != Thread.currentThread()) {
+                sender.interrupt();
+            }
+        }
+    }
+
+    /**
+     * Open a stream for one project, or for all projects when projectId is
+     * null. Returns null when the subscriber limit is reached.
+     */
+    public SseEmitter subscribe(String projectId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(projectId, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        subscribers.add(subscriber);
+        subscriber.sender = Thread.ofVirtual().name("trace-stream-" + subscribers.size()).unstarted(subscriber::run);
+        subscriber.sender.start();
+        return emitter;
+    }
+
+    /**
+     * Push a trace that has just been committed.
+     */
+    public void publishTrace(Trace trace) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String projectId = trace.getProject() != null ? trace.getProject().getId() : null;
+        publish(projectId, new Event("trace", TraceSummary.of(trace, previewLength)));
+    }
+
+    /**
+     * Push a hallucination check result for a trace.
+     */
+    public void publishScore(Trace trace, Double confidenceScore, String hallucinationStatus) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String projectId = trace.getProject() != null ? trace.getProject().getId() : null;
+        Map<String, Object> update = new HashMap<>();
+        update.put("id", trace.getId());
+        update.put("projectId", projectId);
+        update.put("confidenceScore", confidenceScore);
+        update.put("hallucinationStatus", hallucinationStatus);
+        publish(projectId, new Event("score", update));
+    }
+
+    private void publish(String projectId, Event event) {
+        publishedCount.increment();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.wants(projectId)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("bufferSize", bufferSize);
+        stats.put("published", publishedCount.sum());
+        stats.put("dropped", droppedCount.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+// src/main/java/com/example/lighthouse/service/TraceWriteListener.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Trace;
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Adds traces saved through JPA (the dashboard query endpoints) to the
+ * rollups, the cost ledger and the live stream once their transaction commits. SDK traces are
+ * written with JDBC and handled by TraceIngestService instead.
+ */
+@Component
+public class TraceWriteListener {
+
+    @Autowired
+    @Lazy
+    private TraceRollupService traceRollupService;
+
+    @Autowired
+    @Lazy
+    private TraceStreamHub traceStreamHub;
+
+    @Autowired
+    @Lazy
+    private CostLedgerService costLedgerService;
+
+    @PostPersist
+    public void afterPersist(Trace trace) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(trace);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed(trace);
+            }
+        });
+    }
+
+    private void committed(Trace trace) {
+        traceRollupService.record(trace);
+        costLedgerService.record(trace);
+        traceStreamHub.publishTrace(trace);
+    }
+}
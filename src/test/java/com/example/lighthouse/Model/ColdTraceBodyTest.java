@@ -0,0 +1,49 @@
+// src/test/java/com/example/lighthouse/Model/ColdTraceBodyTest.java
+package com.example.lighthouse.Model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColdTraceBodyTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        ColdTraceBody body = new ColdTraceBody("What is 2 + 2? ".repeat(200), "Four — vier — 四",
+                "{\"hasHallucinations\":false}");
+
+        byte[] encoded = body.encode();
+
+        assertThat(ColdTraceBody.decode(encoded)).isEqualTo(body);
+        // Repetitive prompts compress well
+        assertThat((long) encoded.length).isLessThan(body.rawBytes() / 10);
+    }
+
+    @Test
+    void keepsNullsApartFromEmptyStrings() {
+        ColdTraceBody body = new ColdTraceBody("", null, null);
+
+        ColdTraceBody decoded = ColdTraceBody.decode(body.encode());
+
+        assertThat(decoded.prompt()).isEmpty();
+        assertThat(decoded.response()).isNull();
+        assertThat(decoded.hallucinationData()).isNull();
+    }
+
+    @Test
+    void rawBytesCountsUtf8Bytes() {
+        ColdTraceBody body = new ColdTraceBody("abc", "é", null);
+
+        assertThat(body.rawBytes()).isEqualTo(5);
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        byte[] encoded = new ColdTraceBody("prompt", "response", null).encode();
+        encoded[0] = 2;
+
+        assertThatThrownBy(() -> ColdTraceBody.decode(encoded)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ColdTraceBody.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+    }
+}
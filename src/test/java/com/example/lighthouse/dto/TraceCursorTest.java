@@ -0,0 +1,46 @@
+// src/test/java/com/example/lighthouse/dto/TraceCursorTest.java
+package com.example.lighthouse.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TraceCursorTest {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        TraceCursor cursor = new TraceCursor(LocalDateTime.of(2025, 3, 14, 15, 9, 26, 535_897_000),
+                "0b0c9a57-4a4e-4d4c-9f53-2c2f5d1e6f70");
+
+        assertThat(TraceCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        TraceCursor cursor = new TraceCursor(LocalDateTime.of(2025, 1, 1, 0, 0), "???>>>~~~");
+
+        assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void idMayContainTheSeparator() {
+        TraceCursor cursor = new TraceCursor(LocalDateTime.of(2025, 1, 1, 12, 30), "a|b");
+
+        assertThat(TraceCursor.decode(cursor.encode()).id()).isEqualTo("a|b");
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2025-01-01T00:00".getBytes(StandardCharsets.UTF_8));
+        String badTime = Base64.getUrlEncoder().encodeToString("yesterday|id".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> TraceCursor.decode("not base64!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TraceCursor.decode(noSeparator)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TraceCursor.decode(badTime)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
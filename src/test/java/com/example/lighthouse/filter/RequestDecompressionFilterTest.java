@@ -0,0 +1,107 @@
+// src/test/java/com/example/lighthouse/filter/RequestDecompressionFilterTest.java
+package com.example.lighthouse.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestDecompressionFilterTest {
+
+    private RequestDecompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RequestDecompressionFilter();
+        ReflectionTestUtils.setField(filter, "maxDecompressedBytes", 1024L);
+    }
+
+    @Test
+    void inflatesGzipBodies() throws Exception {
+        byte[] body = "{\"prompt\":\"hello\"}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = sdkRequest("gzip", gzip(body));
+        AtomicReference<byte[]> read = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            read.set(req.getInputStream().readAllBytes());
+            // Downstream sees a plain body of unknown length
+            assertThat(((HttpServletRequest) req).getHeader("Content-Encoding")).isNull();
+            assertThat(req.getContentLengthLong()).isEqualTo(-1L);
+        });
+
+        assertThat(read.get()).isEqualTo(body);
+    }
+
+    @Test
+    void acceptsABodyOfExactlyTheLimit() throws Exception {
+        byte[] body = new byte[1024];
+        AtomicReference<byte[]> read = new AtomicReference<>();
+
+        filter.doFilter(sdkRequest("gzip", gzip(body)), new MockHttpServletResponse(),
+                (req, res) -> read.set(req.getInputStream().readAllBytes()));
+
+        assertThat(read.get()).hasSize(1024);
+    }
+
+    @Test
+    void stopsReadingOnceTheInflatedBodyPassesTheLimit() throws Exception {
+        // Compresses to a few bytes, so only the decompressed size can catch it
+        byte[] bomb = gzip(new byte[1025]);
+        FilterChain chain = (req, res) -> req.getInputStream().readAllBytes();
+
+        assertThatThrownBy(() -> filter.doFilter(sdkRequest("gzip", bomb), new MockHttpServletResponse(), chain))
+                .isInstanceOf(RequestDecompressionFilter.PayloadTooLargeException.class);
+    }
+
+    @Test
+    void rejectsUnsupportedEncodings() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] called = {false};
+
+        filter.doFilter(sdkRequest("br", new byte[] {1, 2, 3}), response, (req, res) -> called[0] = true);
+
+        assertThat(response.getStatus()).isEqualTo(415);
+        assertThat(called[0]).isFalse();
+    }
+
+    @Test
+    void leavesOtherPathsAlone() throws Exception {
+        byte[] compressed = gzip("{}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletRequest request = sdkRequest("gzip", compressed);
+        request.setRequestURI("/api/traces");
+        AtomicReference<byte[]> read = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> read.set(req.getInputStream().readAllBytes()));
+
+        assertThat(read.get()).isEqualTo(compressed);
+    }
+
+    private static MockHttpServletRequest sdkRequest(String encoding, byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/sdk/traces");
+        request.addHeader("Content-Encoding", encoding);
+        request.setContentType("application/json");
+        request.setContent(content);
+        return request;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,109 @@
+// src/test/java/com/example/lighthouse/service/IngestRateLimiterTest.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestRateLimiterTest {
+
+    private IngestRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new IngestRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "defaultTracesPerSecond", 500.0);
+        ReflectionTestUtils.setField(limiter, "defaultBurst", 1000);
+    }
+
+    @Test
+    void allowsAFullBurstThenAsksToWaitOneInterval() {
+        Project project = project("p1", 1.0, 3);
+
+        assertThat(limiter.tryAcquire(project, 3)).isZero();
+
+        long wait = limiter.tryAcquire(project, 1);
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void rejectedRequestsDoNotUseTokens() {
+        Project project = project("p1", 1.0, 3);
+
+        assertThat(limiter.tryAcquire(project, 2)).isZero();
+        assertThat(limiter.tryAcquire(project, 2)).isPositive();
+        // The rejected request left the last token in place
+        assertThat(limiter.tryAcquire(project, 1)).isZero();
+    }
+
+    @Test
+    void requestLargerThanTheBurstNeverFits() {
+        Project project = project("p1", 1.0, 3);
+
+        assertThat(limiter.tryAcquire(project, 4)).isPositive();
+        assertThat(limiter.getBurst(project)).isEqualTo(3);
+    }
+
+    @Test
+    void tokensComeBackAtTheConfiguredRate() throws InterruptedException {
+        Project project = project("p1", 1000.0, 1);
+
+        assertThat(limiter.tryAcquire(project, 1)).isZero();
+        assertThat(limiter.tryAcquire(project, 1)).isPositive();
+
+        Thread.sleep(5);
+        assertThat(limiter.tryAcquire(project, 1)).isZero();
+    }
+
+    @Test
+    void projectsHaveSeparateBuckets() {
+        Project first = project("p1", 1.0, 1);
+        Project second = project("p2", 1.0, 1);
+
+        assertThat(limiter.tryAcquire(first, 1)).isZero();
+        assertThat(limiter.tryAcquire(first, 1)).isPositive();
+        assertThat(limiter.tryAcquire(second, 1)).isZero();
+    }
+
+    @Test
+    void changedLimitsStartANewBucket() {
+        Project project = project("p1", 1.0, 1);
+        assertThat(limiter.tryAcquire(project, 1)).isZero();
+        assertThat(limiter.tryAcquire(project, 1)).isPositive();
+
+        project.setIngestBurst(2);
+        assertThat(limiter.tryAcquire(project, 2)).isZero();
+    }
+
+    @Test
+    void projectsWithoutLimitsUseTheDefaults() {
+        Project project = project("p1", null, null);
+
+        assertThat(limiter.getBurst(project)).isEqualTo(1000);
+        assertThat(limiter.tryAcquire(project, 1000)).isZero();
+        assertThat(limiter.tryAcquire(project, 1)).isPositive();
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        Project project = project("p1", 1.0, 1);
+
+        assertThat(limiter.tryAcquire(project, 100)).isZero();
+        assertThat(limiter.getBurst(project)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    private static Project project(String id, Double rate, Integer burst) {
+        Project project = new Project();
+        project.setId(id);
+        project.setIngestRateLimit(rate);
+        project.setIngestBurst(burst);
+        return project;
+    }
+}
@@ -0,0 +1,110 @@
+// src/test/java/com/example/lighthouse/service/LatencyHistogramTest.java
+package com.example.lighthouse.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesGetTheirOwnBucket() {
+        for (int value = 0; value < 64; value++) {
+            assertThat(LatencyHistogram.indexOf(value)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void bucketIndexesAreContiguousAcrossPowersOfTwo() {
+        assertThat(LatencyHistogram.indexOf(64)).isEqualTo(64);
+        assertThat(LatencyHistogram.indexOf(127)).isEqualTo(95);
+        assertThat(LatencyHistogram.indexOf(128)).isEqualTo(96);
+
+        int previous = LatencyHistogram.indexOf(0);
+        for (int value = 1; value < 1 << 20; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(index - previous).isBetween(0, 1);
+            previous = index;
+        }
+    }
+
+    @Test
+    void percentilesAreWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertThat(histogram.getTotalCount()).isEqualTo(100_000);
+        assertThat((double) histogram.percentile(50)).isCloseTo(50_000, within(50_000 * 0.015));
+        assertThat((double) histogram.percentile(99)).isCloseTo(99_000, within(99_000 * 0.015));
+        assertThat(histogram.percentile(0)).isEqualTo(1);
+    }
+
+    @Test
+    void emptyHistogramHasNoPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.isEmpty()).isTrue();
+        assertThat(histogram.percentile(50)).isNull();
+    }
+
+    @Test
+    void negativeLatenciesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertThat(histogram.percentile(100)).isZero();
+    }
+
+    @Test
+    void mergeMatchesRecordingEverythingInOne() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        LatencyHistogram both = new LatencyHistogram();
+        for (int value = 0; value < 5000; value += 7) {
+            first.record(value);
+            both.record(value);
+        }
+        for (int value = 3; value < 20_000; value += 11) {
+            second.record(value, 2);
+            both.record(value, 2);
+        }
+
+        first.merge(second);
+
+        assertThat(first.getTotalCount()).isEqualTo(both.getTotalCount());
+        assertThat(first.toBytes()).isEqualTo(both.toBytes());
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(12, 3);
+        histogram.record(250);
+        histogram.record(1_000_000, 40);
+
+        LatencyHistogram copy = LatencyHistogram.fromBytes(histogram.toBytes());
+
+        assertThat(copy.getTotalCount()).isEqualTo(44);
+        assertThat(copy.toBytes()).isEqualTo(histogram.toBytes());
+        assertThat(copy.percentile(50)).isEqualTo(histogram.percentile(50));
+    }
+
+    @Test
+    void rejectsUnknownOrTruncatedBytes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500, 1000);
+        byte[] bytes = histogram.toBytes();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 1);
+
+        assertThatThrownBy(() -> LatencyHistogram.fromBytes(new byte[] {9}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LatencyHistogram.fromBytes(truncated))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
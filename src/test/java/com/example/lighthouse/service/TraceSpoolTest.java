@@ -0,0 +1,187 @@
+// src/test/java/com/example/lighthouse/service/TraceSpoolTest.java
+package com.example.lighthouse.service;
+
+import com.example.lighthouse.Model.Project;
+import com.example.lighthouse.Model.Trace;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TraceSpoolTest {
+    // Matches the file layout documented on TraceSpool
+    private static final int HEADER_SIZE = 32;
+    private static final int WRITE_POS_OFFSET = 16;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    @TempDir
+    Path dir;
+
+    private final List<TraceSpool> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeSpools() throws IOException {
+        for (TraceSpool spool : opened) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void replaysTracesInOrder() {
+        TraceSpool spool = open();
+        spool.append(List.of(trace("t1"), trace("t2"), trace("t3")));
+
+        TraceSpool.SpoolBatch batch = spool.peek(2);
+        assertThat(batch.traces()).extracting(Trace::getId).containsExactly("t1", "t2");
+        assertThat(batch.traces().get(0).getProject().getId()).isEqualTo("project");
+        spool.commit(batch);
+
+        assertThat(spool.peek(10).traces()).extracting(Trace::getId).containsExactly("t3");
+    }
+
+    @Test
+    void committingPartOfABatchKeepsTheRest() {
+        TraceSpool spool = open();
+        spool.append(List.of(trace("t1"), trace("t2"), trace("t3")));
+
+        spool.commit(spool.peek(3).upTo(1));
+
+        assertThat(spool.peek(3).traces()).extracting(Trace::getId).containsExactly("t2", "t3");
+    }
+
+    @Test
+    void skipsRecordsWithABadChecksum() throws IOException {
+        TraceSpool spool = open();
+        spool.append(List.of(trace("t1"), trace("t2"), trace("t3")));
+
+        corruptPayload(recordOffset(1));
+
+        TraceSpool.SpoolBatch batch = spool.peek(10);
+        assertThat(batch.traces()).extracting(Trace::getId).containsExactly("t1", "t3");
+        assertThat(batch.records()).isEqualTo(3);
+        assertThat(spool.getStats().get("crcMismatches")).isEqualTo(1L);
+
+        spool.commit(batch);
+        assertThat(spool.isEmpty()).isTrue();
+    }
+
+    @Test
+    void recoveryDropsATornRecordAtTheTail() throws IOException {
+        TraceSpool spool = open();
+        spool.append(List.of(trace("t1"), trace("t2"), trace("t3")));
+        int lastRecord = recordOffset(2);
+        spool.close();
+        opened.remove(spool);
+
+        // The header was written but the last record only partly made it to disk
+        corruptPayload(lastRecord);
+
+        TraceSpool reopened = open();
+        assertThat(reopened.getStats().get("pendingTraces")).isEqualTo(2);
+        assertThat(reopened.peek(10).traces()).extracting(Trace::getId).containsExactly("t1", "t2");
+        assertThat(readWritePos()).isEqualTo(lastRecord);
+    }
+
+    @Test
+    void recoveryStopsAtARecordThatCannotBeLocated() throws IOException {
+        TraceSpool spool = open();
+        spool.append(List.of(trace("t1"), trace("t2")));
+        int lastRecord = recordOffset(1);
+        spool.close();
+        opened.remove(spool);
+
+        try (RandomAccessFile file = new RandomAccessFile(spoolFile().toFile(), "rw")) {
+            file.seek(lastRecord);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+
+        TraceSpool reopened = open();
+        assertThat(reopened.peek(10).traces()).extracting(Trace::getId).containsExactly("t1");
+    }
+
+    @Test
+    void rejectsAppendsThatDoNotFit() {
+        TraceSpool spool = open();
+        List<Trace> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            many.add(trace("t" + i));
+        }
+
+        assertThatThrownBy(() -> spool.append(many)).isInstanceOf(TraceSpool.SpoolFullException.class);
+        // All or nothing: none of them were written
+        assertThat(spool.isEmpty()).isTrue();
+    }
+
+    private TraceSpool open() {
+        TraceSpool spool = new TraceSpool();
+        ReflectionTestUtils.setField(spool, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(spool, "enabled", true);
+        ReflectionTestUtils.setField(spool, "path", spoolFile().toString());
+        ReflectionTestUtils.setField(spool, "maxBytes", 8192L);
+        ReflectionTestUtils.setField(spool, "fsyncPolicy", "always");
+        spool.open();
+        opened.add(spool);
+        return spool;
+    }
+
+    private Path spoolFile() {
+        return dir.resolve("traces.spool");
+    }
+
+    /**
+     * File offset of the record with the given index, read from the length
+     * prefixes of the records before it.
+     */
+    private int recordOffset(int index) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(spoolFile().toFile(), "r")) {
+            int pos = HEADER_SIZE;
+            for (int i = 0; i < index; i++) {
+                file.seek(pos);
+                pos += RECORD_HEADER_SIZE + file.readInt();
+            }
+            return pos;
+        }
+    }
+
+    private void corruptPayload(int recordOffset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(spoolFile().toFile(), "rw")) {
+            file.seek(recordOffset + RECORD_HEADER_SIZE + 2);
+            int b = file.read();
+            file.seek(recordOffset + RECORD_HEADER_SIZE + 2);
+            file.write(b ^ 0xFF);
+        }
+    }
+
+    private long readWritePos() throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(spoolFile().toFile(), "r")) {
+            file.seek(WRITE_POS_OFFSET);
+            return file.readLong();
+        }
+    }
+
+    private static Trace trace(String id) {
+        Project project = new Project();
+        project.setId("project");
+        Trace trace = new Trace();
+        trace.setId(id);
+        trace.setProject(project);
+        trace.setPrompt("prompt of " + id);
+        trace.setResponse("response of " + id);
+        trace.setTokensUsed(10);
+        trace.setLatencyMs(250);
+        trace.setProvider("openai");
+        trace.setCreatedAt(LocalDateTime.of(2025, 1, 1, 12, 0));
+        return trace;
+    }
+}